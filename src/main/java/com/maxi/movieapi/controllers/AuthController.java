@@ -1,20 +1,25 @@
 package com.maxi.movieapi.controllers;
 
-import com.maxi.movieapi.security.entities.RefreshToken;
-import com.maxi.movieapi.security.entities.User;
 import com.maxi.movieapi.security.service.AuthService;
+import com.maxi.movieapi.security.service.IssuedRefreshToken;
 import com.maxi.movieapi.security.service.JwtService;
 import com.maxi.movieapi.security.service.RefreshTokenService;
+import com.maxi.movieapi.security.service.UserState;
+import com.maxi.movieapi.security.service.UserStateService;
 import com.maxi.movieapi.security.utils.AuthResponse;
 import com.maxi.movieapi.security.utils.LoginRequest;
 import com.maxi.movieapi.security.utils.RefreshTokenRequest;
 import com.maxi.movieapi.security.utils.RegisterRequest;
 import org.springframework.http.ResponseEntity;
+import org.springframework.security.core.authority.SimpleGrantedAuthority;
+import org.springframework.security.core.userdetails.UsernameNotFoundException;
 import org.springframework.web.bind.annotation.PostMapping;
 import org.springframework.web.bind.annotation.RequestBody;
 import org.springframework.web.bind.annotation.RequestMapping;
 import org.springframework.web.bind.annotation.RestController;
 
+import java.util.List;
+
 @RestController
 @RequestMapping("/api/v1/auth")
 public class AuthController {
@@ -22,11 +27,14 @@ public class AuthController {
     private final AuthService authService;
     private final RefreshTokenService refreshTokenService;
     private final JwtService jwtService;
+    private final UserStateService userStateService;
 
-    public AuthController(AuthService authService, RefreshTokenService refreshTokenService, JwtService jwtService) {
+    public AuthController(AuthService authService, RefreshTokenService refreshTokenService, JwtService jwtService,
+                          UserStateService userStateService) {
         this.authService = authService;
         this.refreshTokenService = refreshTokenService;
         this.jwtService = jwtService;
+        this.userStateService = userStateService;
     }
 
     @PostMapping("/register")
@@ -41,13 +49,15 @@ public class AuthController {
 
     @PostMapping("/refresh")
     public ResponseEntity<AuthResponse> refreshToken(@RequestBody RefreshTokenRequest refreshTokenRequest) {
-        RefreshToken refreshToken = refreshTokenService.verifyRefreshToken(refreshTokenRequest.getRefreshToken());
-        User user = refreshToken.getUser();
+        IssuedRefreshToken refreshToken = refreshTokenService.verifyRefreshToken(refreshTokenRequest.getRefreshToken());
+        // El rol sale del estado de usuario en caché: la renovación no carga la entidad User
+        UserState user = userStateService.get(refreshToken.email())
+                .orElseThrow(() -> new UsernameNotFoundException("User not found with email: " + refreshToken.email()));
 
-        String accessToken = jwtService.generateToken(user);
+        String accessToken = jwtService.generateToken(user.email(), List.of(new SimpleGrantedAuthority(user.role().name())));
         return ResponseEntity.ok((AuthResponse.builder()
                 .accessToken(accessToken)
-                .refreshToken(refreshToken.getRefreshToken())
+                .refreshToken(refreshToken.token())
                 .build()));
     }
 }
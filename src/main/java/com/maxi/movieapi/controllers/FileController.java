@@ -2,15 +2,34 @@ package com.maxi.movieapi.controllers;
 
 import jakarta.servlet.http.HttpServletResponse;
 import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpRange;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.InvalidMediaTypeException;
 import org.springframework.http.MediaType;
+import org.springframework.http.MediaTypeFactory;
 import org.springframework.http.ResponseEntity;
-import org.springframework.util.StreamUtils;
+import org.springframework.security.access.prepost.PreAuthorize;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.context.request.ServletWebRequest;
+import org.springframework.util.unit.DataSize;
 import org.springframework.web.multipart.MultipartFile;
+import com.maxi.movieapi.exceptions.FileTooLargeException;
 import com.maxi.movieapi.service.FileService;
+import com.maxi.movieapi.service.PosterVariantService;
+import com.maxi.movieapi.service.impl.PosterCache;
+import com.maxi.movieapi.service.storage.PosterStorage;
 
+import java.io.FileNotFoundException;
 import java.io.IOException;
 import java.io.InputStream;
+import java.nio.ByteBuffer;
+import java.nio.channels.Channels;
+import java.nio.channels.WritableByteChannel;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.regex.Pattern;
 
 // Marca la clase como un controlador REST para manejar solicitudes HTTP relacionadas con archivos.
 @RestController
@@ -20,14 +39,31 @@ public class FileController {
     // Servicio para manejar operaciones relacionadas con archivos.
     private final FileService FileService;
 
-    // Constructor que inyecta la dependencia de FileService.
-    public FileController(FileService FileService) {
+    // Servicio para generar y resolver las variantes redimensionadas de los pósters.
+    private final PosterVariantService posterVariantService;
+
+    // Caché fuera del heap con el contenido de los pósters más solicitados.
+    private final PosterCache posterCache;
+
+    // Constructor que inyecta las dependencias del controlador.
+    public FileController(FileService FileService, PosterVariantService posterVariantService, PosterCache posterCache) {
         this.FileService = FileService;
+        this.posterVariantService = posterVariantService;
+        this.posterCache = posterCache;
     }
 
-    // Inyecta el valor de la propiedad 'project.poster' desde application.properties o application.yml.
-    @Value("${project.poster}")
-    private String path;
+    // Nombre de un archivo direccionado por contenido: hash SHA-256, variante opcional y extensión.
+    private static final Pattern CONTENT_ADDRESSED_NAME = Pattern.compile("[0-9a-f]{64}(_small|_medium)?(\\.[a-z0-9]{1,5})?");
+
+    // Cabeceras de caché para contenido inmutable y para archivos que pueden cambiar.
+    // Son privadas: los pósters requieren autenticación y una caché compartida no debe servirlos a terceros.
+    private static final String IMMUTABLE_CACHE_CONTROL = "private, max-age=31536000, immutable";
+    private static final String REVALIDATE_CACHE_CONTROL = "private, max-age=3600, must-revalidate";
+    private static final String FALLBACK_CACHE_CONTROL = "private, no-cache";
+
+    // Tamaño máximo de un archivo subido, el mismo que se aplica a las subidas multipart.
+    @Value("${spring.servlet.multipart.max-file-size}")
+    private DataSize maxFileSize;
 
     /**
      * Endpoint para manejar la carga de archivos.
@@ -38,24 +74,188 @@ public class FileController {
     @PostMapping("/upload") // Define que este método responderá a solicitudes POST en "/file/upload".
     public ResponseEntity<?> uploadFileHandler(@RequestPart MultipartFile file) throws IOException {
         // Llama al servicio para guardar el archivo en el sistema de archivos.
-        String uploadFileName = FileService.uploadFile(path, file);
+        String uploadFileName = FileService.uploadFile(file).fileName();
         // Retorna una respuesta indicando éxito y el nombre del archivo cargado.
         return ResponseEntity.ok("File uploaded successfully: " + uploadFileName);
     }
 
+    /**
+     * Endpoint para subir un archivo enviando su contenido directamente como cuerpo de la solicitud, sin multipart.
+     * El cuerpo se lee una sola vez y se escribe en el directorio de pósters; la subida se corta apenas supera el tamaño máximo.
+     * @param filename Nombre original del archivo, usado para conservar la extensión.
+     * @param contentLength Tamaño declarado del cuerpo, si el cliente lo envía.
+     * @param body Contenido del archivo.
+     * @return Respuesta HTTP con el nombre del archivo cargado, o 413 si es demasiado grande.
+     * @throws IOException Si ocurre un error al guardar el archivo.
+     */
+    @PostMapping("/upload-stream") // Define que este método responderá a solicitudes POST en "/file/upload-stream".
+    public ResponseEntity<?> streamUploadFileHandler(@RequestParam String filename,
+                                                     @RequestHeader(value = HttpHeaders.CONTENT_LENGTH, required = false) Long contentLength,
+                                                     InputStream body) throws IOException {
+        long maxBytes = maxFileSize.toBytes();
+        // Rechaza de inmediato las subidas que declaran un tamaño mayor al permitido.
+        if (contentLength != null && contentLength > maxBytes) {
+            return new ResponseEntity<>("File exceeds the maximum size of " + maxBytes + " bytes", HttpStatus.PAYLOAD_TOO_LARGE);
+        }
+        try {
+            String uploadFileName = FileService.uploadFile(body, filename, maxBytes).fileName();
+            return ResponseEntity.ok("File uploaded successfully: " + uploadFileName);
+        } catch (FileTooLargeException e) {
+            return new ResponseEntity<>(e.getMessage(), HttpStatus.PAYLOAD_TOO_LARGE);
+        }
+    }
+
     /**
      * Endpoint para servir un archivo desde el servidor al cliente.
+     * Admite solicitudes parciales con un único rango ({@code Range: bytes=...}), respondiendo 206 Partial Content,
+     * y solicitudes condicionales ({@code If-None-Match} / {@code If-Modified-Since}), respondiendo 304 sin abrir el archivo.
      * @param fileName Nombre del archivo a ser servido.
+     * @param variant Variante opcional del póster (small, medium u original).
+     * @param rangeHeader Cabecera Range opcional enviada por el cliente.
+     * @param request Solicitud actual, usada para evaluar las cabeceras condicionales.
      * @param response Objeto de respuesta HTTP para enviar el archivo al cliente.
      * @throws IOException Si ocurre un error al leer o enviar el archivo.
      */
+    // La ruta es pública en la cadena de filtros y un acierto de la caché no pasa por FileService,
+    // por lo que el rol se verifica aquí antes de servir cualquier byte.
+    @PreAuthorize("hasAuthority('ROLE_USER')")
     @GetMapping("/{fileName}") // Define que este método responderá a solicitudes GET en "/file/{fileName}".
-    public void serverFileHandler(@PathVariable String fileName, HttpServletResponse response) throws IOException {
-        // Obtiene el archivo solicitado como un flujo de entrada (InputStream).
-        InputStream resourceFile = FileService.getResourceFile(path, fileName);
-        // Establece el tipo de contenido de la respuesta como una imagen PNG.
-        response.setContentType(MediaType.IMAGE_PNG_VALUE);
-        // Copia el contenido del archivo al flujo de salida de la respuesta.
-        StreamUtils.copy(resourceFile, response.getOutputStream());
+    public void serverFileHandler(@PathVariable String fileName,
+                                  @RequestParam(defaultValue = "original") String variant,
+                                  @RequestHeader(value = HttpHeaders.RANGE, required = false) String rangeHeader,
+                                  ServletWebRequest request,
+                                  HttpServletResponse response) throws IOException {
+        PosterVariantService.Variant requestedVariant;
+        try {
+            requestedVariant = PosterVariantService.Variant.from(variant);
+        } catch (IllegalArgumentException e) {
+            response.sendError(HttpServletResponse.SC_BAD_REQUEST, e.getMessage());
+            return;
+        }
+
+        // Los pósters más pedidos se sirven desde la caché fuera del heap, sin acceder al almacenamiento.
+        String servedName = requestedVariant.fileName(fileName);
+        ByteBuffer cached = posterCache.get(servedName);
+        PosterStorage.StoredObject file = null;
+        if (cached == null || !isContentAddressed(servedName)) {
+            // Obtiene el tamaño y la fecha del archivo solicitado sin abrirlo.
+            try {
+                // Se valida primero el original, que es del que derivan todas las variantes.
+                FileService.getResourceInfo(fileName);
+                servedName = cached != null ? servedName : posterVariantService.resolveVariant(fileName, requestedVariant);
+                file = FileService.getResourceInfo(servedName);
+            } catch (FileNotFoundException e) {
+                response.sendError(HttpServletResponse.SC_NOT_FOUND);
+                return;
+            }
+        }
+
+        // Validadores: el nombre de un archivo direccionado por contenido identifica sus bytes para siempre;
+        // para el resto se usan el tamaño y la fecha de modificación, leídos sin abrir el archivo.
+        // Si se sirve el original en lugar de una variante todavía no generada, la respuesta no es definitiva.
+        boolean fallback = !servedName.equals(requestedVariant.fileName(fileName));
+        if (fallback) {
+            response.setHeader(HttpHeaders.CACHE_CONTROL, FALLBACK_CACHE_CONTROL);
+        } else if (isContentAddressed(servedName)) {
+            response.setHeader(HttpHeaders.CACHE_CONTROL, IMMUTABLE_CACHE_CONTROL);
+            if (request.checkNotModified("\"" + servedName + "\"")) {
+                return;
+            }
+        } else {
+            long lastModified = file.lastModified();
+            response.setHeader(HttpHeaders.CACHE_CONTROL, REVALIDATE_CACHE_CONTROL);
+            String eTag = "\"" + Long.toHexString(file.size()) + "-" + Long.toHexString(lastModified) + "\"";
+            if (request.checkNotModified(eTag, lastModified)) {
+                return;
+            }
+        }
+
+        if (cached == null) {
+            cached = posterCache.load(servedName, file.size());
+        }
+
+        long length = cached != null ? cached.remaining() : file.size();
+        long start = 0;
+        long end = length - 1;
+
+        response.setHeader(HttpHeaders.ACCEPT_RANGES, "bytes");
+        response.setContentType(contentType(fileName).toString());
+
+        HttpRange range = singleRange(rangeHeader);
+        if (range != null) {
+            try {
+                start = range.getRangeStart(length);
+                end = range.getRangeEnd(length);
+            } catch (IllegalArgumentException e) {
+                start = length;
+            }
+            if (start >= length || start > end) {
+                response.setHeader(HttpHeaders.CONTENT_RANGE, "bytes */" + length);
+                response.sendError(HttpServletResponse.SC_REQUESTED_RANGE_NOT_SATISFIABLE);
+                return;
+            }
+            response.setStatus(HttpServletResponse.SC_PARTIAL_CONTENT);
+            response.setHeader(HttpHeaders.CONTENT_RANGE, "bytes " + start + "-" + end + "/" + length);
+        }
+
+        long count = end - start + 1;
+        response.setContentLengthLong(count);
+
+        if (cached != null) {
+            WritableByteChannel target = Channels.newChannel(response.getOutputStream());
+            ByteBuffer slice = cached.position((int) start).limit((int) (end + 1));
+            while (slice.hasRemaining()) {
+                target.write(slice);
+            }
+            return;
+        }
+
+        // Archivos demasiado grandes para la caché: el almacenamiento transfiere los bytes sin copiarlos al heap.
+        FileService.transferTo(servedName, start, count, Channels.newChannel(response.getOutputStream()));
+    }
+
+    /**
+     * Endpoint para consultar el estado de generación de las variantes de un póster.
+     * @param fileName Nombre del póster original.
+     * @return El estado de cada variante.
+     */
+    @PreAuthorize("hasAuthority('ROLE_USER')")
+    @GetMapping("/{fileName}/variants")
+    public ResponseEntity<Map<PosterVariantService.Variant, PosterVariantService.Status>> variantStatusHandler(@PathVariable String fileName) {
+        return ResponseEntity.ok(posterVariantService.getStatus(fileName));
+    }
+
+    // Los archivos cuyo nombre es el hash SHA-256 del contenido (o una variante de él) nunca cambian.
+    private static boolean isContentAddressed(String fileName) {
+        return CONTENT_ADDRESSED_NAME.matcher(fileName).matches();
+    }
+
+    // Detecta el tipo de contenido a partir de la extensión del archivo; sin extensión conocida se usa el tipo
+    // detectado al subirlo, guardado en los metadatos del póster.
+    private MediaType contentType(String fileName) {
+        return MediaTypeFactory.getMediaType(fileName)
+                .or(() -> FileService.getMimeType(fileName).flatMap(FileController::parseMediaType))
+                .orElse(MediaType.APPLICATION_OCTET_STREAM);
+    }
+
+    private static Optional<MediaType> parseMediaType(String mimeType) {
+        try {
+            return Optional.of(MediaType.parseMediaType(mimeType));
+        } catch (InvalidMediaTypeException e) {
+            return Optional.empty();
+        }
+    }
+
+    // Devuelve el rango solicitado si hay exactamente uno; con varios rangos o una cabecera inválida se sirve el archivo completo.
+    private static HttpRange singleRange(String rangeHeader) {
+        if (rangeHeader == null) {
+            return null;
+        }
+        try {
+            List<HttpRange> ranges = HttpRange.parseRanges(rangeHeader);
+            return ranges.size() == 1 ? ranges.get(0) : null;
+        } catch (IllegalArgumentException e) {
+            return null;
+        }
     }
 }
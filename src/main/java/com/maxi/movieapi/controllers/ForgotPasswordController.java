@@ -6,6 +6,8 @@ import com.maxi.movieapi.security.entities.User;
 import com.maxi.movieapi.security.repository.ForgotPasswordRepository;
 import com.maxi.movieapi.security.repository.UserRepository;
 import com.maxi.movieapi.security.service.EmailService;
+import com.maxi.movieapi.security.service.RefreshTokenStore;
+import com.maxi.movieapi.security.service.UserStateService;
 import com.maxi.movieapi.security.utils.ChangePasssword;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
@@ -30,11 +32,17 @@ public class ForgotPasswordController {
 
     private final PasswordEncoder passwordEncoder;
 
-    public ForgotPasswordController(UserRepository userRepository, EmailService emailService, ForgotPasswordRepository forgotPasswordRepository, PasswordEncoder passwordEncoder) {
+    private final UserStateService userStateService;
+
+    private final RefreshTokenStore refreshTokenStore;
+
+    public ForgotPasswordController(UserRepository userRepository, EmailService emailService, ForgotPasswordRepository forgotPasswordRepository, PasswordEncoder passwordEncoder, UserStateService userStateService, RefreshTokenStore refreshTokenStore) {
         this.userRepository = userRepository;
         this.emailService = emailService;
         this.forgotPasswordRepository = forgotPasswordRepository;
         this.passwordEncoder = passwordEncoder;
+        this.userStateService = userStateService;
+        this.refreshTokenStore = refreshTokenStore;
     }
 
 
@@ -103,7 +111,10 @@ public class ForgotPasswordController {
         }
 
         String encodedPassword = passwordEncoder.encode(changePassword.password());
-        userRepository.updatePassword(email, encodedPassword);
+        userRepository.updatePassword(email, encodedPassword, Instant.now());
+        // Los tokens emitidos con la contraseña anterior se rechazan a partir de ahora, y el refresh token se revoca
+        userStateService.invalidate(email);
+        refreshTokenStore.removeByEmail(email);
 
         return ResponseEntity.ok("Password has been changed!");
     }
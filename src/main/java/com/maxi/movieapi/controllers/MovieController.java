@@ -2,17 +2,33 @@ package com.maxi.movieapi.controllers;
 
 import com.fasterxml.jackson.databind.ObjectMapper;
 import com.maxi.movieapi.dto.MovieDto;
+import com.maxi.movieapi.dto.MovieFacetsDto;
+import com.maxi.movieapi.dto.MovieImportResultDto;
 import com.maxi.movieapi.exceptions.MovieNotFoundException;
 import com.maxi.movieapi.exceptions.MovieSaveException;
+import com.maxi.movieapi.service.MovieExportService;
+import com.maxi.movieapi.service.MovieFacetService;
+import com.maxi.movieapi.service.MovieImportService;
+import com.maxi.movieapi.service.MovieSearchService;
 import com.maxi.movieapi.service.MovieService;
 import jakarta.validation.Valid;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.security.access.prepost.PreAuthorize;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.context.request.WebRequest;
 import org.springframework.web.multipart.MultipartFile;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 
 import java.io.IOException;
+import java.io.InputStream;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.HexFormat;
 import java.util.List;
 
 @RestController
@@ -20,10 +36,20 @@ import java.util.List;
 public class MovieController {
 
     private final MovieService movieService;
+    private final MovieSearchService movieSearchService;
+    private final MovieFacetService movieFacetService;
+    private final MovieImportService movieImportService;
+    private final MovieExportService movieExportService;
     private final ObjectMapper objectMapper;
 
-    public MovieController(MovieService movieService, ObjectMapper objectMapper) {
+    public MovieController(MovieService movieService, MovieSearchService movieSearchService,
+                           MovieFacetService movieFacetService, MovieImportService movieImportService,
+                           MovieExportService movieExportService, ObjectMapper objectMapper) {
         this.movieService = movieService;
+        this.movieSearchService = movieSearchService;
+        this.movieFacetService = movieFacetService;
+        this.movieImportService = movieImportService;
+        this.movieExportService = movieExportService;
         this.objectMapper = objectMapper;
     }
 
@@ -33,11 +59,54 @@ public class MovieController {
         return ResponseEntity.ok(movieService.getAllMovies());
     }
 
+    @PreAuthorize("hasAuthority('ROLE_USER')")
+    @GetMapping(value = "/stream", produces = MediaType.APPLICATION_NDJSON_VALUE)
+    public ResponseEntity<StreamingResponseBody> streamAllMovies() {
+        StreamingResponseBody body = out -> movieService.streamAllMovies(0L, movie -> {
+            try {
+                out.write(objectMapper.writeValueAsBytes(movie));
+                out.write('\n');
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+        });
+        return ResponseEntity.ok()
+                .contentType(MediaType.APPLICATION_NDJSON)
+                .body(body);
+    }
+
+    @PreAuthorize("hasAuthority('ROLE_USER')")
+    @GetMapping("/export")
+    public ResponseEntity<?> exportMovies(@RequestParam(defaultValue = "ndjson") String format,
+                                          @RequestParam(defaultValue = "0") Long afterId) {
+        MovieExportService.Format exportFormat;
+        try {
+            exportFormat = MovieExportService.Format.from(format);
+        } catch (IllegalArgumentException e) {
+            return new ResponseEntity<>(e.getMessage(), HttpStatus.BAD_REQUEST);
+        }
+
+        String fileName = "movies." + exportFormat.name().toLowerCase() + ".gz";
+        StreamingResponseBody body = out -> movieExportService.exportMovies(out, exportFormat, afterId);
+        return ResponseEntity.ok()
+                .contentType(MediaType.parseMediaType("application/gzip"))
+                .header(HttpHeaders.CONTENT_DISPOSITION, "attachment; filename=\"" + fileName + "\"")
+                .body(body);
+    }
+
     @PreAuthorize("hasAuthority('ROLE_USER')")
     @GetMapping("/paginate")
-    public ResponseEntity<?> getAllMoviesByPage(@RequestParam int page, @RequestParam int size) {
+    public ResponseEntity<?> getAllMoviesByPage(@RequestParam int page, @RequestParam int size,
+                                                @RequestParam(defaultValue = "false") boolean slice,
+                                                WebRequest request) {
+        String eTag = catalogETag("paginate", page, size, slice);
+        if (request.checkNotModified(eTag)) {
+            return ResponseEntity.status(HttpStatus.NOT_MODIFIED).eTag(eTag).build();
+        }
         try {
-            return ResponseEntity.ok(movieService.getAllMoviesByPage(page, size));
+            return ResponseEntity.ok().eTag(eTag).body(slice
+                    ? movieService.getAllMoviesBySlice(page, size)
+                    : movieService.getAllMoviesByPage(page, size));
         } catch (IllegalArgumentException e) {
             return new ResponseEntity<>(e.getMessage(), HttpStatus.BAD_REQUEST);
         }
@@ -45,20 +114,67 @@ public class MovieController {
 
     @PreAuthorize("hasAuthority('ROLE_USER')")
     @GetMapping("/all-movies-page-sort")
-    public ResponseEntity<?> getAllMoviesByPageSort(@RequestParam int page, @RequestParam int size, @RequestParam String sortBy, @RequestParam String order) {
+    public ResponseEntity<?> getAllMoviesByPageSort(@RequestParam int page, @RequestParam int size, @RequestParam String sortBy, @RequestParam String order,
+                                                    @RequestParam(defaultValue = "false") boolean slice,
+                                                    WebRequest request) {
+        // La dirección se normaliza igual que en el servicio: cualquier valor distinto de ASC ordena en forma descendente
+        String eTag = catalogETag("page-sort", page, size, sortBy, "ASC".equalsIgnoreCase(order) ? "ASC" : "DESC", slice);
+        if (request.checkNotModified(eTag)) {
+            return ResponseEntity.status(HttpStatus.NOT_MODIFIED).eTag(eTag).build();
+        }
+        try {
+            return ResponseEntity.ok().eTag(eTag).body(slice
+                    ? movieService.getAllMoviesBySliceAndSorting(page, size, sortBy, order)
+                    : movieService.getAllMoviesByPageAndSorting(page, size, sortBy, order));
+        } catch (IllegalArgumentException e) {
+            return new ResponseEntity<>(e.getMessage(), HttpStatus.BAD_REQUEST);
+        }
+    }
+
+    @PreAuthorize("hasAuthority('ROLE_USER')")
+    @GetMapping("/scroll")
+    public ResponseEntity<?> getMoviesByCursor(@RequestParam(required = false) String cursor,
+                                               @RequestParam int size,
+                                               @RequestParam(defaultValue = "id") String sortBy,
+                                               @RequestParam(defaultValue = "ASC") String order) {
         try {
-            return ResponseEntity.ok(movieService.getAllMoviesByPageAndSorting(page, size, sortBy, order));
+            return ResponseEntity.ok(movieService.getMoviesByCursor(cursor, size, sortBy, order));
         } catch (IllegalArgumentException e) {
             return new ResponseEntity<>(e.getMessage(), HttpStatus.BAD_REQUEST);
         }
     }
 
+    @PreAuthorize("hasAuthority('ROLE_USER')")
+    @GetMapping("/search")
+    public ResponseEntity<?> searchMovies(@RequestParam String q, @RequestParam(defaultValue = "20") int limit) {
+        try {
+            return ResponseEntity.ok(movieSearchService.searchMovies(q, limit));
+        } catch (IllegalArgumentException e) {
+            return new ResponseEntity<>(e.getMessage(), HttpStatus.BAD_REQUEST);
+        }
+    }
+
+    @PreAuthorize("hasAuthority('ROLE_USER')")
+    @GetMapping("/facets")
+    public ResponseEntity<MovieFacetsDto> getFacets(@RequestParam(required = false) String studio,
+                                                    @RequestParam(required = false) String director,
+                                                    @RequestParam(required = false) Integer decade) {
+        return ResponseEntity.ok(movieFacetService.getFacets(studio, director, decade));
+    }
+
     @PreAuthorize("hasAuthority('ROLE_USER')")
     @GetMapping("/{id}")
-    public ResponseEntity<MovieDto> getMovieById(@PathVariable Long id) {
-        return movieService.getMovieById(id)
-                .map(ResponseEntity::ok)
+    public ResponseEntity<MovieDto> getMovieById(@PathVariable Long id, WebRequest request) {
+        MovieDto movie = movieService.getMovieById(id)
                 .orElseThrow(() -> new MovieNotFoundException("Movie not found with id: " + id));
+
+        // Se valida contra la versión de la película, sin serializar el cuerpo
+        String eTag = "\"m" + movie.getId() + "-" + movie.getVersion() + "\"";
+        long lastModified = movie.getLastModified() == null ? -1 : movie.getLastModified().toEpochMilli();
+        if (request.checkNotModified(eTag, lastModified)) {
+            return ResponseEntity.status(HttpStatus.NOT_MODIFIED).eTag(eTag).build();
+        }
+        return ResponseEntity.ok().eTag(eTag).body(movie);
     }
 
     @PreAuthorize("hasAuthority('ROLE_USER')")
@@ -70,6 +186,12 @@ public class MovieController {
         return new ResponseEntity<>(savedMovie, HttpStatus.CREATED);
     }
 
+    @PreAuthorize("hasAuthority('ROLE_USER')")
+    @PostMapping(value = "/import", consumes = MediaType.APPLICATION_NDJSON_VALUE)
+    public ResponseEntity<MovieImportResultDto> importMovies(InputStream body) throws IOException {
+        return ResponseEntity.ok(movieImportService.importMovies(body));
+    }
+
     @PreAuthorize("hasAuthority('ROLE_USER')")
     @PutMapping("/{id}")
     public ResponseEntity<MovieDto> updateMovie(@PathVariable Long id, @RequestPart MultipartFile file, @RequestPart String movieDto) throws IOException {
@@ -85,7 +207,7 @@ public class MovieController {
 
     @PreAuthorize("hasAuthority('ROLE_USER')")
     @DeleteMapping("/{id}")
-    public ResponseEntity<?> deleteMovie(@PathVariable Long id) throws IOException {
+    public ResponseEntity<?> deleteMovie(@PathVariable Long id) {
         try {
             movieService.deleteMovie(id);
             return new ResponseEntity<>(HttpStatus.OK);
@@ -93,4 +215,20 @@ public class MovieController {
             return new ResponseEntity<>(e.getMessage(), HttpStatus.NOT_FOUND);
         }
     }
+
+    // ETag de un listado: versión global del catálogo más el SHA-256 de los parámetros que determinan la página.
+    // Cada parámetro se antepone con su largo, para que dos combinaciones distintas nunca se codifiquen igual.
+    private String catalogETag(String listing, Object... params) {
+        StringBuilder key = new StringBuilder(listing);
+        for (Object param : params) {
+            String value = String.valueOf(param);
+            key.append('|').append(value.length()).append(':').append(value);
+        }
+        try {
+            byte[] hash = MessageDigest.getInstance("SHA-256").digest(key.toString().getBytes(StandardCharsets.UTF_8));
+            return "\"c" + movieService.getCatalogVersion() + "-" + HexFormat.of().formatHex(hash) + "\"";
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 not available", e);
+        }
+    }
 }
@@ -6,6 +6,7 @@ import lombok.Builder;
 import lombok.Data;
 import lombok.NoArgsConstructor;
 import lombok.AllArgsConstructor;
+import java.time.Instant;
 import java.util.Set;
 
 
@@ -36,4 +37,10 @@ public class MovieDto {
     @NotBlank(message = "Poster Url is mandatory")
     private String posterUrl;
 
+    private PosterMetadataDto posterMetadata;
+
+    private Long version;
+
+    private Instant lastModified;
+
 }
@@ -0,0 +1,11 @@
+package com.maxi.movieapi.dto;
+
+import java.util.Map;
+
+/**
+ * Conteo de películas por estudio, director y década de lanzamiento.
+ * Las décadas se identifican por su primer año (por ejemplo 1990).
+ */
+public record MovieFacetsDto(int total, Map<String, Integer> studios, Map<String, Integer> directors, Map<Integer, Integer> decades) {
+
+}
@@ -0,0 +1,24 @@
+package com.maxi.movieapi.dto;
+
+import java.util.List;
+
+/**
+ * Resultado de una importación masiva de películas.
+ *
+ * @param imported      Cantidad de filas insertadas.
+ * @param failed        Cantidad de filas rechazadas.
+ * @param errors        Detalle de las filas rechazadas (limitado a las primeras).
+ * @param elapsedMillis Duración de la importación en milisegundos.
+ * @param rowsPerSecond Filas procesadas por segundo.
+ */
+public record MovieImportResultDto(int imported, int failed, List<RowError> errors, long elapsedMillis, double rowsPerSecond) {
+
+    /**
+     * Error de una fila de la importación.
+     *
+     * @param line    El número de línea (comenzando desde 1).
+     * @param message La causa del rechazo.
+     */
+    public record RowError(long line, String message) {
+    }
+}
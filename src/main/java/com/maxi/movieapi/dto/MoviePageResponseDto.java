@@ -2,6 +2,11 @@ package com.maxi.movieapi.dto;
 
 import java.util.List;
 
-public record MoviePageResponseDto(List<MovieDto> movies, int pageNumber, long pageSize, int totalElements, int totalPages, boolean isLast) {
+/**
+ * Respuesta paginada de películas.
+ * En el modo por cursor {@code totalElements} y {@code totalPages} valen -1 (no se calculan)
+ * y {@code nextCursor} contiene el token para pedir la página siguiente, o {@code null} si es la última.
+ */
+public record MoviePageResponseDto(List<MovieDto> movies, int pageNumber, long pageSize, int totalElements, int totalPages, boolean isLast, String nextCursor) {
 
 }
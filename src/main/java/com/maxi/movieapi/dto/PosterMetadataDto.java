@@ -0,0 +1,10 @@
+package com.maxi.movieapi.dto;
+
+/**
+ * Metadatos del póster de una película: dimensiones, tipo MIME, tamaño en bytes y color de relleno ("#rrggbb").
+ * Las dimensiones y el color son nulos si el archivo no pudo procesarse como imagen; el color también lo es
+ * hasta que se generan las variantes del póster, de las que se calcula.
+ */
+public record PosterMetadataDto(Integer width, Integer height, String mimeType, Long size, String placeholder) {
+
+}
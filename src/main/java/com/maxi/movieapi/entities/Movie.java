@@ -3,7 +3,10 @@ package com.maxi.movieapi.entities;
 import jakarta.persistence.*;
 import jakarta.validation.constraints.*;
 import lombok.*;
+import org.hibernate.annotations.BatchSize;
+import org.hibernate.annotations.UpdateTimestamp;
 
+import java.time.Instant;
 import java.util.Set;
 
 /**
@@ -20,15 +23,17 @@ import java.util.Set;
 @AllArgsConstructor
 @Builder
 @Entity
-@Table(name = "movies")
+@Table(name = "movies", indexes = @Index(name = "idx_movies_poster", columnList = "poster"))
 public class Movie {
 
     /**
      * Identificador único de la película.
-     * Este campo es generado automáticamente por la base de datos.
+     * Este campo se genera a partir de la secuencia "movies_seq", reservando bloques de 50 valores
+     * para que Hibernate pueda agrupar las inserciones en lotes JDBC.
      */
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "movies_seq")
+    @SequenceGenerator(name = "movies_seq", sequenceName = "movies_seq", allocationSize = 50)
     private Long id;
 
     /**
@@ -59,8 +64,10 @@ public class Movie {
     /**
      * El conjunto de actores o miembros del reparto de la película.
      * Este campo se almacena en una tabla separada llamada "movie_cast".
+     * Se carga por lotes para que una página de películas resuelva su reparto en una sola consulta.
      */
     @ElementCollection
+    @BatchSize(size = 100)
     @CollectionTable(name = "movie_cast", joinColumns = @JoinColumn(name = "movie_id"))
     @Column(name = "actor")
     private Set<String> movieCast;
@@ -76,9 +83,29 @@ public class Movie {
     private Integer releaseYear;
 
     /**
-     * La URL o ruta del póster de la película.
+     * El nombre del póster de la película: el hash SHA-256 de su contenido más la extensión original.
      * Este campo es obligatorio.
      */
     @Column(nullable = false)
     private String poster;
+
+    /**
+     * Dimensiones, tipo, tamaño y color de relleno del póster, calculados al subirlo.
+     */
+    @Embedded
+    private PosterMetadata posterMetadata;
+
+    /**
+     * Versión de la película, incrementada en cada modificación.
+     * Se utiliza para el bloqueo optimista y para generar el ETag de la película.
+     */
+    @Version
+    private Long version;
+
+    /**
+     * Fecha de la última modificación de la película.
+     */
+    @UpdateTimestamp
+    @Column(name = "last_modified")
+    private Instant lastModified;
 }
\ No newline at end of file
@@ -0,0 +1,53 @@
+package com.maxi.movieapi.entities;
+
+import jakarta.persistence.Column;
+import jakarta.persistence.Embeddable;
+import lombok.*;
+
+/**
+ * Metadatos del póster de una película, calculados al subir el archivo y al generar sus variantes.
+ * Permiten que los listados reserven el espacio de la imagen y muestren un color de relleno antes de descargarla.
+ * Las dimensiones son nulas si el archivo no pudo procesarse como imagen.
+ *
+ * @author Maxi
+ * @version 1.0
+ */
+@Getter
+@Setter
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+@Embeddable
+public class PosterMetadata {
+
+    /**
+     * Ancho de la imagen en píxeles.
+     */
+    @Column(name = "poster_width")
+    private Integer width;
+
+    /**
+     * Alto de la imagen en píxeles.
+     */
+    @Column(name = "poster_height")
+    private Integer height;
+
+    /**
+     * Tipo MIME del archivo, por ejemplo "image/png".
+     */
+    @Column(name = "poster_mime_type", length = 100)
+    private String mimeType;
+
+    /**
+     * Tamaño del archivo en bytes.
+     */
+    @Column(name = "poster_size")
+    private Long size;
+
+    /**
+     * Color promedio de la imagen en formato "#rrggbb", usado como marcador de posición.
+     * Se completa al generarse la variante chica del póster.
+     */
+    @Column(name = "poster_placeholder", length = 7)
+    private String placeholder;
+}
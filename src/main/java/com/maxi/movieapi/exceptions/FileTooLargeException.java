@@ -0,0 +1,7 @@
+package com.maxi.movieapi.exceptions;
+
+public class FileTooLargeException extends RuntimeException {
+    public FileTooLargeException(String message) {
+        super(message);
+    }
+}
@@ -1,7 +1,23 @@
 package com.maxi.movieapi.exceptions;
 
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.ControllerAdvice;
+import org.springframework.web.bind.annotation.ExceptionHandler;
 
 @ControllerAdvice
 public class GlobalExceptionHandler {
+
+    // Segundos que se sugiere esperar antes de reintentar cuando el hashing de contraseñas está saturado
+    @Value("${security.password-hashing.retry-after-seconds:1}")
+    private int passwordHashingRetryAfterSeconds;
+
+    @ExceptionHandler(PasswordHashingUnavailableException.class)
+    public ResponseEntity<String> handlePasswordHashingUnavailable(PasswordHashingUnavailableException e) {
+        return ResponseEntity.status(HttpStatus.SERVICE_UNAVAILABLE)
+                .header(HttpHeaders.RETRY_AFTER, String.valueOf(passwordHashingRetryAfterSeconds))
+                .body(e.getMessage());
+    }
 }
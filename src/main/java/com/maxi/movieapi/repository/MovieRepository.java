@@ -1,9 +1,27 @@
 package com.maxi.movieapi.repository;
 
 import com.maxi.movieapi.entities.Movie;
+import jakarta.persistence.QueryHint;
+import org.springframework.data.domain.Limit;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.ScrollPosition;
+import org.springframework.data.domain.Slice;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.domain.Window;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
+import java.util.Collection;
+import java.util.List;
+import java.util.Set;
+import java.util.stream.Stream;
+
+import static org.hibernate.jpa.HibernateHints.HINT_FETCH_SIZE;
+import static org.hibernate.jpa.HibernateHints.HINT_READ_ONLY;
+
 /**
  * Repositorio para la entidad {@link Movie}.
  * Proporciona métodos para acceder y manipular datos de películas en la base de datos.
@@ -14,4 +32,67 @@ import org.springframework.stereotype.Repository;
  */
 @Repository
 public interface MovieRepository extends JpaRepository<Movie, Long> {
+
+    /**
+     * Recorre las películas con un cursor de base de datos en lugar de cargarlas en memoria.
+     * Debe consumirse dentro de una transacción y cerrarse al terminar.
+     *
+     * @param afterId Solo se recorren las películas con id mayor a este valor (0 para todas).
+     * @return Un {@link Stream} de películas ordenadas por id.
+     */
+    @QueryHints({
+            @QueryHint(name = HINT_FETCH_SIZE, value = "500"),
+            @QueryHint(name = HINT_READ_ONLY, value = "true")
+    })
+    @Query("select m from Movie m where m.id > :afterId order by m.id")
+    Stream<Movie> streamAll(@Param("afterId") Long afterId);
+
+    /**
+     * Obtiene una ventana de películas a partir de una posición de desplazamiento.
+     * Con una posición keyset se traduce en un predicado de búsqueda sobre la clave de orden, sin OFFSET ni COUNT.
+     *
+     * @param position La posición desde la cual continuar.
+     * @param sort     El ordenamiento, que debe terminar en una clave única.
+     * @param limit    La cantidad máxima de películas a devolver.
+     * @return La ventana de películas, indicando si existen más resultados.
+     */
+    Window<Movie> findAllBy(ScrollPosition position, Sort sort, Limit limit);
+
+    /**
+     * Obtiene una porción de películas sin ejecutar la consulta COUNT.
+     * Se leen {@code size + 1} filas para saber si existe una página siguiente.
+     *
+     * @param pageable La página solicitada y su ordenamiento.
+     * @return La porción de películas.
+     */
+    Slice<Movie> findAllBy(Pageable pageable);
+
+    /**
+     * Obtiene las películas que utilizan un póster.
+     * Como los pósters se guardan por contenido, varias películas pueden compartir el mismo archivo.
+     *
+     * @param poster El nombre del póster.
+     * @return Las películas que lo referencian.
+     */
+    List<Movie> findAllByPoster(String poster);
+
+    /**
+     * Obtiene, de un lote de pósters, los que están referenciados por alguna película.
+     * Resuelve el lote completo en una sola consulta sobre el índice de {@code poster}.
+     *
+     * @param posters Los nombres de los pósters a verificar.
+     * @return Los nombres referenciados, sin repetir.
+     */
+    @Query("select distinct m.poster from Movie m where m.poster in :posters")
+    Set<String> findReferencedPosters(@Param("posters") Collection<String> posters);
+
+    /**
+     * Obtiene el tipo MIME detectado al subir un póster, guardado en las películas que lo referencian.
+     * Todas comparten el mismo contenido, por lo que cualquiera de los valores es válido.
+     *
+     * @param poster El nombre del póster.
+     * @return Los tipos MIME guardados, sin repetir.
+     */
+    @Query("select distinct m.posterMetadata.mimeType from Movie m where m.poster = :poster and m.posterMetadata.mimeType is not null")
+    List<String> findPosterMimeTypes(@Param("poster") String poster);
 }
@@ -1,6 +1,8 @@
 package com.maxi.movieapi.security.config;
 
 import com.maxi.movieapi.security.repository.UserRepository;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
 import org.springframework.security.authentication.AuthenticationManager;
@@ -12,6 +14,8 @@ import org.springframework.security.core.userdetails.UsernameNotFoundException;
 import org.springframework.security.crypto.bcrypt.BCryptPasswordEncoder;
 import org.springframework.security.crypto.password.PasswordEncoder;
 
+import java.time.Duration;
+
 @Configuration
 public class ApplicationConfig {
 
@@ -28,10 +32,10 @@ public class ApplicationConfig {
     }
 
     @Bean
-    public AuthenticationProvider authenticationProvider() {
+    public AuthenticationProvider authenticationProvider(PasswordEncoder passwordEncoder) {
         DaoAuthenticationProvider authenticationProvider = new DaoAuthenticationProvider();
         authenticationProvider.setUserDetailsService(userDetailsService());
-        authenticationProvider.setPasswordEncoder(passwordEncoder());
+        authenticationProvider.setPasswordEncoder(passwordEncoder);
         return authenticationProvider;
     }
 
@@ -40,8 +44,12 @@ public class ApplicationConfig {
         return config.getAuthenticationManager();
     }
 
+    // BCrypt se ejecuta en un pool propio para que una ola de logins no ocupe los hilos de Tomcat
     @Bean
-    public PasswordEncoder passwordEncoder() {
-        return new BCryptPasswordEncoder();
+    public PasswordEncoder passwordEncoder(@Value("${security.password-hashing.threads:2}") int threads,
+                                           @Value("${security.password-hashing.queue-capacity:50}") int queueCapacity,
+                                           @Value("${security.password-hashing.timeout:PT5S}") Duration timeout,
+                                           MeterRegistry meterRegistry) {
+        return new OffloadingPasswordEncoder(new BCryptPasswordEncoder(), threads, queueCapacity, timeout, meterRegistry);
     }
 }
\ No newline at end of file
@@ -6,6 +6,7 @@ import lombok.*;
 import java.util.Date;
 
 @Entity
+@Table(indexes = @Index(name = "idx_forgot_password_expiration", columnList = "expiration_time"))
 @NoArgsConstructor
 @AllArgsConstructor
 @Getter
@@ -11,7 +11,10 @@ import java.time.Instant;
 @NoArgsConstructor
 @AllArgsConstructor
 @Entity
-@Table(name = "refresh_tokens")
+@Table(name = "refresh_tokens", indexes = {
+        @Index(name = "idx_refresh_tokens_token", columnList = "refresh_token"),
+        @Index(name = "idx_refresh_tokens_expiration", columnList = "expiration_time")
+})
 public class RefreshToken {
 
     @Id
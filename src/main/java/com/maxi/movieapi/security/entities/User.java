@@ -9,6 +9,7 @@ import org.springframework.security.core.GrantedAuthority;
 import org.springframework.security.core.authority.SimpleGrantedAuthority;
 import org.springframework.security.core.userdetails.UserDetails;
 
+import java.time.Instant;
 import java.util.Collection;
 import java.util.List;
 
@@ -49,6 +50,10 @@ public class User implements UserDetails {
     @Enumerated(EnumType.STRING)
     private UserRole role;
 
+    // Los tokens emitidos antes de esta fecha dejan de ser válidos
+    @Column(name = "password_changed_at")
+    private Instant passwordChangedAt;
+
 
     @Override
     public Collection<? extends GrantedAuthority> getAuthorities() {
@@ -2,9 +2,13 @@ package com.maxi.movieapi.security.repository;
 
 import com.maxi.movieapi.security.entities.ForgotPassword;
 import com.maxi.movieapi.security.entities.User;
+import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 
+import java.util.Date;
+import java.util.List;
 import java.util.Optional;
 
 public interface ForgotPasswordRepository extends JpaRepository<ForgotPassword, Integer> {
@@ -13,4 +17,8 @@ public interface ForgotPasswordRepository extends JpaRepository<ForgotPassword,
     Optional<ForgotPassword> findByOtpAndUser(Integer otp, User user);
 
     Optional<ForgotPassword> findByUser(User user);
+
+    // Ids de OTPs vencidos, los más antiguos primero; la cantidad la limita la página
+    @Query("select fp.fpid from ForgotPassword fp where fp.expirationTime < :now order by fp.expirationTime")
+    List<Integer> findExpiredIds(@Param("now") Date now, Pageable pageable);
 }
\ No newline at end of file
@@ -1,10 +1,29 @@
 package com.maxi.movieapi.security.repository;
 
 import com.maxi.movieapi.security.entities.RefreshToken;
+import com.maxi.movieapi.security.service.IssuedRefreshToken;
+import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 
-import java.util.Optional;
+import java.time.Instant;
+import java.util.Collection;
+import java.util.List;
 
 public interface RefreshTokenRepository extends JpaRepository<RefreshToken, Long> {
-    Optional<RefreshToken> findByRefreshToken(String refreshToken);
+
+    // Tokens vigentes con el email y el id de su usuario, sin cargar las entidades
+    @Query("select new com.maxi.movieapi.security.service.IssuedRefreshToken(r.refreshToken, u.email, u.userId, r.expirationTime) " +
+            "from RefreshToken r join r.user u where r.expirationTime > :now")
+    List<IssuedRefreshToken> findAllActive(@Param("now") Instant now);
+
+    // Ids de tokens vencidos, los más antiguos primero; la cantidad la limita la página
+    @Query("select r.id from RefreshToken r where r.expirationTime < :now order by r.expirationTime")
+    List<Long> findExpiredIds(@Param("now") Instant now, Pageable pageable);
+
+    @Modifying
+    @Query("delete from RefreshToken r where r.user.userId in :userIds")
+    void deleteAllByUserIds(@Param("userIds") Collection<Integer> userIds);
 }
@@ -1,18 +1,24 @@
 package com.maxi.movieapi.security.repository;
 
 import com.maxi.movieapi.security.entities.User;
+import com.maxi.movieapi.security.service.UserState;
 import jakarta.transaction.Transactional;
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.data.jpa.repository.Modifying;
 import org.springframework.data.jpa.repository.Query;
 
+import java.time.Instant;
 import java.util.Optional;
 
 public interface UserRepository extends JpaRepository<User, Long> {
    Optional<User> findByEmail(String username);
 
+   // Solo las columnas necesarias para autenticar, sin cargar las relaciones del usuario
+   @Query("select new com.maxi.movieapi.security.service.UserState(u.email, u.role, u.passwordChangedAt) from User u where u.email = ?1")
+   Optional<UserState> findStateByEmail(String email);
+
    @Transactional
    @Modifying
-   @Query("update User u set u.password = ?2 where u.email = ?1")
-   void updatePassword(String email, String password);
+   @Query("update User u set u.password = ?2, u.passwordChangedAt = ?3 where u.email = ?1")
+   void updatePassword(String email, String password, Instant passwordChangedAt);
 }
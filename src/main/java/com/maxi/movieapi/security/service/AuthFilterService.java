@@ -1,10 +1,13 @@
 package com.maxi.movieapi.security.service;
 
+import io.jsonwebtoken.JwtException;
 import jakarta.servlet.FilterChain;
 import jakarta.servlet.ServletException;
 import jakarta.servlet.http.HttpServletRequest;
 import jakarta.servlet.http.HttpServletResponse;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+import org.springframework.security.core.authority.SimpleGrantedAuthority;
 import org.springframework.security.core.context.SecurityContextHolder;
 import org.springframework.security.core.userdetails.UserDetails;
 import org.springframework.security.core.userdetails.UserDetailsService;
@@ -14,6 +17,7 @@ import org.springframework.stereotype.Service;
 import org.springframework.web.filter.OncePerRequestFilter;
 
 import java.io.IOException;
+import java.util.List;
 
 @Service
 public class AuthFilterService extends OncePerRequestFilter {
@@ -22,9 +26,18 @@ public class AuthFilterService extends OncePerRequestFilter {
 
     private final UserDetailsService userDetailsService;
 
-    public AuthFilterService(JwtService jwtService, UserDetailsService userDetailsService) {
+    private final UserStateService userStateService;
+
+    // true: the principal and authorities come from the verified claims, checked against the cached user state;
+    // false: the user is loaded from the database on every request
+    private final boolean statelessAuth;
+
+    public AuthFilterService(JwtService jwtService, UserDetailsService userDetailsService, UserStateService userStateService,
+                             @Value("${jwt.stateless-auth:true}") boolean statelessAuth) {
         this.jwtService = jwtService;
         this.userDetailsService = userDetailsService;
+        this.userStateService = userStateService;
+        this.statelessAuth = statelessAuth;
     }
 
 
@@ -35,7 +48,7 @@ public class AuthFilterService extends OncePerRequestFilter {
 
         final String authHeader = request.getHeader("Authorization");
         String jwt;
-        String username;
+        VerifiedToken token;
 
         if (authHeader == null || !authHeader.startsWith("Bearer ")) {
             filterChain.doFilter(request, response);
@@ -45,18 +58,21 @@ public class AuthFilterService extends OncePerRequestFilter {
         // extract JWT
         jwt = authHeader.substring(7);
 
-        // extract username from JWT
-        username = jwtService.extractUsername(jwt);
+        // verify JWT once (signature and expiration); an invalid token leaves the request unauthenticated
+        try {
+            token = jwtService.verify(jwt);
+        } catch (JwtException | IllegalArgumentException e) {
+            filterChain.doFilter(request, response);
+            return;
+        }
 
+        String username = token.subject();
         if (username != null && SecurityContextHolder.getContext().getAuthentication() == null) {
-            UserDetails userDetails = userDetailsService.loadUserByUsername(username);
-            if(jwtService.isTokenValid(jwt, userDetails)) {
-                UsernamePasswordAuthenticationToken authenticationToken = new UsernamePasswordAuthenticationToken(
-                        userDetails,
-                        null,
-                        userDetails.getAuthorities()
-                );
+            UsernamePasswordAuthenticationToken authenticationToken = statelessAuth
+                    ? authenticateFromClaims(token)
+                    : authenticateFromDatabase(username);
 
+            if (authenticationToken != null) {
                 authenticationToken.setDetails(
                         new WebAuthenticationDetailsSource().buildDetails(request)
                 );
@@ -67,4 +83,26 @@ public class AuthFilterService extends OncePerRequestFilter {
 
         filterChain.doFilter(request, response);
     }
+
+    // principal = email, authorities = token roles; rejected if the password changed after issuing or the role no longer matches
+    private UsernamePasswordAuthenticationToken authenticateFromClaims(VerifiedToken token) {
+        UserState state = userStateService.get(token.subject()).orElse(null);
+        if (state == null || !state.accepts(token)) {
+            return null;
+        }
+        List<SimpleGrantedAuthority> authorities = token.roles().stream().map(SimpleGrantedAuthority::new).toList();
+        return new UsernamePasswordAuthenticationToken(token.subject(), null, authorities);
+    }
+
+    private UsernamePasswordAuthenticationToken authenticateFromDatabase(String username) {
+        UserDetails userDetails = userDetailsService.loadUserByUsername(username);
+        if (!username.equals(userDetails.getUsername())) {
+            return null;
+        }
+        return new UsernamePasswordAuthenticationToken(
+                userDetails,
+                null,
+                userDetails.getAuthorities()
+        );
+    }
 }
\ No newline at end of file
@@ -0,0 +1,97 @@
+package com.maxi.movieapi.security.service;
+
+import com.maxi.movieapi.security.repository.ForgotPasswordRepository;
+import com.maxi.movieapi.security.repository.RefreshTokenRepository;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Pageable;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.Instant;
+import java.util.Date;
+import java.util.List;
+import java.util.function.Consumer;
+import java.util.function.Function;
+
+/**
+ * Elimina periódicamente los refresh tokens y los OTPs de recuperación de contraseña vencidos.
+ * <p>
+ * Trabaja en lotes acotados: cada lote busca los ids vencidos sobre la columna de vencimiento indexada y los elimina
+ * por id en su propia transacción, de modo que ningún bloqueo se mantiene más que lo que dura un lote.
+ * La cantidad de lotes por ejecución también está acotada; lo que quede se elimina en la siguiente.
+ */
+@Component
+public class ExpiredCredentialsSweeper {
+
+    private static final Logger log = LoggerFactory.getLogger(ExpiredCredentialsSweeper.class);
+
+    private final RefreshTokenRepository refreshTokenRepository;
+    private final ForgotPasswordRepository forgotPasswordRepository;
+    private final TransactionTemplate transactionTemplate;
+    private final int batchSize;
+    private final int maxBatchesPerRun;
+
+    private final Counter refreshTokensDeleted;
+    private final Counter forgotPasswordsDeleted;
+
+    public ExpiredCredentialsSweeper(RefreshTokenRepository refreshTokenRepository,
+                                     ForgotPasswordRepository forgotPasswordRepository,
+                                     PlatformTransactionManager transactionManager,
+                                     @Value("${security.sweeper.batch-size:500}") int batchSize,
+                                     @Value("${security.sweeper.max-batches-per-run:20}") int maxBatchesPerRun,
+                                     MeterRegistry meterRegistry) {
+        this.refreshTokenRepository = refreshTokenRepository;
+        this.forgotPasswordRepository = forgotPasswordRepository;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.batchSize = batchSize;
+        this.maxBatchesPerRun = maxBatchesPerRun;
+
+        this.refreshTokensDeleted = Counter.builder("security.sweeper.deleted").tag("table", "refresh_tokens").register(meterRegistry);
+        this.forgotPasswordsDeleted = Counter.builder("security.sweeper.deleted").tag("table", "forgot_password").register(meterRegistry);
+    }
+
+    @Scheduled(fixedDelayString = "${security.sweeper.interval:60000}", initialDelayString = "${security.sweeper.interval:60000}")
+    public void sweep() {
+        Instant now = Instant.now();
+        try {
+            int refreshTokens = sweep(page -> refreshTokenRepository.findExpiredIds(now, page),
+                    refreshTokenRepository::deleteAllByIdInBatch, refreshTokensDeleted);
+            int forgotPasswords = sweep(page -> forgotPasswordRepository.findExpiredIds(Date.from(now), page),
+                    forgotPasswordRepository::deleteAllByIdInBatch, forgotPasswordsDeleted);
+            if (refreshTokens > 0 || forgotPasswords > 0) {
+                log.info("Deleted {} expired refresh tokens and {} expired OTPs", refreshTokens, forgotPasswords);
+            }
+        } catch (RuntimeException e) {
+            log.warn("Expired credentials sweep failed", e);
+        }
+    }
+
+    // Elimina lotes hasta que uno venga incompleto o se alcance el máximo por ejecución
+    private <ID> int sweep(Function<Pageable, List<ID>> findExpiredIds, Consumer<List<ID>> deleteByIds, Counter deleted) {
+        Pageable firstBatch = PageRequest.of(0, batchSize);
+        int total = 0;
+        for (int batch = 0; batch < maxBatchesPerRun; batch++) {
+            Integer count = transactionTemplate.execute(status -> {
+                List<ID> ids = findExpiredIds.apply(firstBatch);
+                if (!ids.isEmpty()) {
+                    deleteByIds.accept(ids);
+                }
+                return ids.size();
+            });
+            int size = count == null ? 0 : count;
+            total += size;
+            deleted.increment(size);
+            if (size < batchSize) {
+                break;
+            }
+        }
+        return total;
+    }
+}
@@ -0,0 +1,18 @@
+package com.maxi.movieapi.security.service;
+
+import java.time.Instant;
+
+/**
+ * Refresh token emitido para un usuario, tal como lo guarda {@link RefreshTokenStore}.
+ *
+ * @param token     El valor del refresh token.
+ * @param email     El email del usuario dueño del token.
+ * @param userId    El identificador del usuario.
+ * @param expiresAt La fecha de vencimiento.
+ */
+public record IssuedRefreshToken(String token, String email, Integer userId, Instant expiresAt) {
+
+    public boolean isExpired(Instant now) {
+        return expiresAt.isBefore(now);
+    }
+}
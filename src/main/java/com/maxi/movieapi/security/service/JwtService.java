@@ -1,15 +1,34 @@
 package com.maxi.movieapi.security.service;
 
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.Expiry;
 import io.jsonwebtoken.Claims;
+import io.jsonwebtoken.ExpiredJwtException;
+import io.jsonwebtoken.JwtException;
+import io.jsonwebtoken.JwtParser;
 import io.jsonwebtoken.Jwts;
 import io.jsonwebtoken.SignatureAlgorithm;
 import io.jsonwebtoken.io.Decoders;
 import io.jsonwebtoken.security.Keys;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.security.core.GrantedAuthority;
 import org.springframework.security.core.userdetails.UserDetails;
 import org.springframework.stereotype.Service;
+
+import java.nio.charset.StandardCharsets;
 import java.security.Key;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Base64;
+import java.util.Collection;
 import java.util.Date;
 import java.util.HashMap;
+import java.util.List;
 import java.util.Map;
 import java.util.function.Function;
 
@@ -18,9 +37,68 @@ public class JwtService {
 
     private static final String SECRET_KEY = "BF7FD11ACE545745B7BA1AF98B6F156D127BC7BB544BAB6A4FD74E4FC7";
 
+    // La clave y el parser son inmutables y seguros entre hilos: se construyen una sola vez
+    private final Key signInKey;
+    private final JwtParser parser;
+
+    // Tokens ya verificados, por hash del token; cada entrada vence junto con su token
+    private final Cache<String, VerifiedToken> verifiedTokens;
+
+    public JwtService(@Value("${jwt.cache.maximum-size:10000}") long cacheMaximumSize,
+                      MeterRegistry meterRegistry) {
+        this.signInKey = getSignInKey();
+        this.parser = Jwts.parserBuilder().setSigningKey(signInKey).build();
+        this.verifiedTokens = Caffeine.newBuilder()
+                .maximumSize(cacheMaximumSize)
+                .expireAfter(new Expiry<String, VerifiedToken>() {
+                    @Override
+                    public long expireAfterCreate(String key, VerifiedToken token, long currentTime) {
+                        long millis = token.expiresAt().toEpochMilli() - System.currentTimeMillis();
+                        return Math.max(0, millis) * 1_000_000L;
+                    }
+
+                    @Override
+                    public long expireAfterUpdate(String key, VerifiedToken token, long currentTime, long currentDuration) {
+                        return currentDuration;
+                    }
+
+                    @Override
+                    public long expireAfterRead(String key, VerifiedToken token, long currentTime, long currentDuration) {
+                        return currentDuration;
+                    }
+                })
+                .recordStats()
+                .build();
+        CaffeineCacheMetrics.monitor(meterRegistry, verifiedTokens, "jwt.verified-tokens");
+    }
+
+    /**
+     * Verifica la firma y el vencimiento de un token una sola vez y devuelve su contenido.
+     * Los tokens ya verificados se obtienen de la caché sin volver a calcular la firma.
+     *
+     * @param token El JWT recibido.
+     * @return El contenido verificado del token.
+     * @throws JwtException Si el token es inválido, está mal firmado o venció.
+     */
+    public VerifiedToken verify(String token) {
+        String key = digest(token);
+        VerifiedToken cached = verifiedTokens.getIfPresent(key);
+        if (cached != null) {
+            if (cached.isExpired(Instant.now())) {
+                verifiedTokens.invalidate(key);
+                throw new ExpiredJwtException(null, null, "JWT expired at " + cached.expiresAt());
+            }
+            return cached;
+        }
+
+        VerifiedToken verified = toVerifiedToken(extractAllClaims(token));
+        verifiedTokens.put(key, verified);
+        return verified;
+    }
+
     // extract username from JWT
     public String extractUsername(String token) {
-        return extractClaim(token, Claims::getSubject);
+        return verify(token).subject();
     }
 
     public <T> T extractClaim(String token, Function<Claims, T> claimsResolver) {
@@ -30,16 +108,13 @@ public class JwtService {
 
     // extract information from JWT
     private Claims extractAllClaims(String token) {
-        return Jwts
-                .parserBuilder()
-                .setSigningKey(getSignInKey())
-                .build()
+        return parser
                 .parseClaimsJws(token)
                 .getBody();
     }
 
     // decode and get the key
-    private Key getSignInKey() {
+    private static Key getSignInKey() {
         // decode SECRET_KEY
         byte[] keyBytes = Decoders.BASE64.decode(SECRET_KEY);
         return Keys.hmacShaKeyFor(keyBytes);
@@ -50,36 +125,74 @@ public class JwtService {
         return generateToken(new HashMap<>(), userDetails);
     }
 
+    // generate token for a user known only by its email and authorities, without loading the entity
+    public String generateToken(String username, Collection<? extends GrantedAuthority> authorities) {
+        return generateToken(new HashMap<>(), username, authorities);
+    }
+
     // generate token using Jwt utility class and return token as String
     public String generateToken(
             Map<String, Object> extraClaims,
             UserDetails userDetails
     ) {
+        return generateToken(extraClaims, userDetails.getUsername(), userDetails.getAuthorities());
+    }
+
+    private String generateToken(Map<String, Object> extraClaims, String username,
+                                 Collection<? extends GrantedAuthority> authorities) {
         extraClaims = new HashMap<>(extraClaims);
-        extraClaims.put("role", userDetails.getAuthorities());
+        extraClaims.put("role", authorities);
         return Jwts
                 .builder()
                 .setClaims(extraClaims)
-                .setSubject(userDetails.getUsername())
+                .setSubject(username)
                 .setIssuedAt(new Date(System.currentTimeMillis()))
                 .setExpiration(new Date(System.currentTimeMillis() + 25 * 100000))
-                .signWith(getSignInKey(), SignatureAlgorithm.HS256)
+                .signWith(signInKey, SignatureAlgorithm.HS256)
                 .compact();
     }
 
     // if token is valid by checking if token is expired for current user
     public boolean isTokenValid(String token, UserDetails userDetails) {
-        final String username = extractUsername(token);
-        return (username.equals(userDetails.getUsername()) && !isTokenExpired(token));
+        try {
+            return verify(token).subject().equals(userDetails.getUsername());
+        } catch (JwtException e) {
+            return false;
+        }
     }
 
-    // if token is expired
-    private boolean isTokenExpired(String token) {
-        return extractExpiration(token).before(new Date());
+    // Los roles se guardan como la lista de authorities serializada: [{"authority": "ROLE_USER"}].
+    // Los tokens sin vencimiento no se aceptan: no podrían quitarse nunca de la caché
+    private static VerifiedToken toVerifiedToken(Claims claims) {
+        List<String> roles = new ArrayList<>();
+        if (claims.get("role") instanceof List<?> values) {
+            for (Object value : values) {
+                if (value instanceof Map<?, ?> authority && authority.get("authority") != null) {
+                    roles.add(authority.get("authority").toString());
+                } else if (value instanceof String role) {
+                    roles.add(role);
+                }
+            }
+        }
+        if (claims.getExpiration() == null) {
+            throw new JwtException("JWT without expiration");
+        }
+        Date issuedAt = claims.getIssuedAt();
+        return new VerifiedToken(
+                claims.getSubject(),
+                roles,
+                issuedAt == null ? null : issuedAt.toInstant(),
+                claims.getExpiration().toInstant()
+        );
     }
 
-    // get expiration date from token
-    private Date extractExpiration(String token) {
-        return extractClaim(token, Claims::getExpiration);
+    // Se guarda el hash y no el token, para no mantener credenciales en memoria como claves de la caché
+    private static String digest(String token) {
+        try {
+            byte[] hash = MessageDigest.getInstance("SHA-256").digest(token.getBytes(StandardCharsets.UTF_8));
+            return Base64.getEncoder().encodeToString(hash);
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 not available", e);
+        }
     }
-}
\ No newline at end of file
+}
@@ -1,56 +1,49 @@
 package com.maxi.movieapi.security.service;
 
-import com.maxi.movieapi.security.entities.RefreshToken;
 import com.maxi.movieapi.security.entities.User;
-import com.maxi.movieapi.security.repository.RefreshTokenRepository;
-import com.maxi.movieapi.security.repository.UserRepository;
-import org.springframework.security.core.userdetails.UsernameNotFoundException;
 import org.springframework.stereotype.Service;
 
 import java.time.Instant;
+import java.util.Optional;
 import java.util.UUID;
 
 @Service
 public class RefreshTokenService {
 
-    private final UserRepository userRepository;
+    private final RefreshTokenStore refreshTokenStore;
 
-    private final RefreshTokenRepository refreshTokenRepository;
-
-    public RefreshTokenService(UserRepository userRepository, RefreshTokenRepository refreshTokenRepository) {
-        this.userRepository = userRepository;
-        this.refreshTokenRepository = refreshTokenRepository;
+    public RefreshTokenService(RefreshTokenStore refreshTokenStore) {
+        this.refreshTokenStore = refreshTokenStore;
     }
 
-    public RefreshToken createRefreshToken(String username) {
-        User user = userRepository.findByEmail(username)
-                .orElseThrow(() -> new UsernameNotFoundException("User not found with email : " + username));
-
-        RefreshToken refreshToken = user.getRefreshToken();
-
-        if (refreshToken == null) {
-            long refreshTokenValidity = 30 * 100000;
-            refreshToken = RefreshToken.builder()
-                    .refreshToken(UUID.randomUUID().toString())
-                    .expirationTime(Instant.now().plusMillis(refreshTokenValidity))
-                    .user(user)
-                    .build();
-
-            refreshTokenRepository.save(refreshToken);
+    // returns the user's current refresh token, or issues a new one if it has none or it expired
+    public IssuedRefreshToken createRefreshToken(User user) {
+        Optional<IssuedRefreshToken> current = refreshTokenStore.findByEmail(user.getEmail());
+        if (current.isPresent() && !current.get().isExpired(Instant.now())) {
+            return current.get();
         }
 
+        long refreshTokenValidity = 30 * 100000;
+        IssuedRefreshToken refreshToken = new IssuedRefreshToken(
+                UUID.randomUUID().toString(),
+                user.getEmail(),
+                user.getUserId(),
+                Instant.now().plusMillis(refreshTokenValidity)
+        );
+        refreshTokenStore.save(refreshToken);
+
         return refreshToken;
     }
 
-    public RefreshToken verifyRefreshToken(String refreshToken) {
-        RefreshToken refToken = refreshTokenRepository.findByRefreshToken(refreshToken)
+    public IssuedRefreshToken verifyRefreshToken(String refreshToken) {
+        IssuedRefreshToken refToken = refreshTokenStore.findByToken(refreshToken)
                 .orElseThrow(() -> new RuntimeException("Refresh token not found!"));
 
-        if (refToken.getExpirationTime().compareTo(Instant.now()) < 0) {
-            refreshTokenRepository.delete(refToken);
+        if (refToken.isExpired(Instant.now())) {
+            refreshTokenStore.remove(refToken);
             throw new RuntimeException("Refresh Token expired");
         }
 
         return refToken;
     }
-}
\ No newline at end of file
+}
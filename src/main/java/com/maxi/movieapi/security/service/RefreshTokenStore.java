@@ -0,0 +1,256 @@
+package com.maxi.movieapi.security.service;
+
+import com.maxi.movieapi.security.entities.RefreshToken;
+import com.maxi.movieapi.security.entities.User;
+import com.maxi.movieapi.security.repository.RefreshTokenRepository;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.PersistenceContext;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.NonTransientDataAccessException;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Almacén en memoria de los refresh tokens: cada verificación se resuelve con una búsqueda en un mapa concurrente,
+ * sin consultar la base de datos. La tabla {@code refresh_tokens} se usa solo para durabilidad: los cambios se
+ * escriben en segundo plano (write-behind) y se leen una única vez al arrancar.
+ * <p>
+ * Cada usuario tiene a lo sumo un token vigente. Los vencimientos se agendan en una {@link TimingWheel} que
+ * descarta los tokens vencidos a medida que avanza el reloj.
+ * <p>
+ * Los cambios pendientes se agrupan por usuario, de modo que entre dos escrituras solo se persiste el último estado.
+ * Un cambio puede perderse si la aplicación se detiene abruptamente antes de la siguiente escritura; en ese caso
+ * el usuario solo necesita volver a iniciar sesión.
+ * <p>
+ * El vencimiento y la escritura corren en un hilo propio y no en el planificador compartido de Spring, donde una
+ * compactación o una recolección de pósters larga los demoraría. Si un lote falla por una fila inválida, se reintenta
+ * usuario por usuario; el cambio que sigue fallando se descarta tras {@value #MAX_ATTEMPTS} intentos.
+ */
+@Component
+public class RefreshTokenStore {
+
+    private static final Logger log = LoggerFactory.getLogger(RefreshTokenStore.class);
+
+    // Intentos de escritura de un cambio que falla por sí solo antes de descartarlo
+    static final int MAX_ATTEMPTS = 3;
+
+    private final RefreshTokenRepository refreshTokenRepository;
+    private final TransactionTemplate transactionTemplate;
+
+    @PersistenceContext
+    private EntityManager entityManager;
+
+    private final Map<String, IssuedRefreshToken> byToken = new ConcurrentHashMap<>();
+    private final Map<String, IssuedRefreshToken> byEmail = new ConcurrentHashMap<>();
+    private final TimingWheel<String> expirations = new TimingWheel<>(1000, System.currentTimeMillis());
+
+    // Último estado pendiente de persistir por usuario; vacío indica que el usuario ya no tiene token
+    private final Map<Integer, Optional<IssuedRefreshToken>> pendingWrites = new ConcurrentHashMap<>();
+
+    // Intentos fallidos por usuario de cambios rechazados por la base de datos; solo se usa dentro de flush
+    private final Map<Integer, Integer> failedAttempts = new HashMap<>();
+
+    private final long flushIntervalMillis;
+    private final ScheduledExecutorService scheduler;
+
+    public RefreshTokenStore(RefreshTokenRepository refreshTokenRepository,
+                             PlatformTransactionManager transactionManager,
+                             MeterRegistry meterRegistry,
+                             @Value("${security.refresh-tokens.flush-interval:1000}") long flushIntervalMillis) {
+        this.refreshTokenRepository = refreshTokenRepository;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.flushIntervalMillis = flushIntervalMillis;
+        this.scheduler = Executors.newSingleThreadScheduledExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "refresh-token-store");
+            thread.setDaemon(true);
+            return thread;
+        });
+
+        Gauge.builder("security.refresh-tokens.size", byToken, Map::size).register(meterRegistry);
+        Gauge.builder("security.refresh-tokens.pending-writes", pendingWrites, Map::size).register(meterRegistry);
+    }
+
+    /**
+     * Carga los tokens y empieza a agendar el vencimiento y la escritura, antes de que la aplicación reciba solicitudes.
+     */
+    @PostConstruct
+    public void start() {
+        load();
+        scheduler.scheduleAtFixedRate(() -> runSafely("expire", this::expire), 1000, 1000, TimeUnit.MILLISECONDS);
+        scheduler.scheduleWithFixedDelay(() -> runSafely("flush", this::flush),
+                flushIntervalMillis, flushIntervalMillis, TimeUnit.MILLISECONDS);
+    }
+
+    /**
+     * Carga los tokens vigentes de la tabla.
+     */
+    public void load() {
+        long start = System.currentTimeMillis();
+        List<IssuedRefreshToken> tokens = refreshTokenRepository.findAllActive(Instant.now());
+        tokens.forEach(this::index);
+        log.info("Loaded {} refresh tokens in {} ms", tokens.size(), System.currentTimeMillis() - start);
+    }
+
+    public Optional<IssuedRefreshToken> findByToken(String token) {
+        return Optional.ofNullable(byToken.get(token));
+    }
+
+    public Optional<IssuedRefreshToken> findByEmail(String email) {
+        return Optional.ofNullable(byEmail.get(email));
+    }
+
+    /**
+     * Guarda el token de un usuario, reemplazando el anterior si existía.
+     */
+    public void save(IssuedRefreshToken token) {
+        index(token);
+        pendingWrites.put(token.userId(), Optional.of(token));
+    }
+
+    /**
+     * Elimina un token. No tiene efecto si el usuario ya tiene otro token.
+     */
+    public void remove(IssuedRefreshToken token) {
+        if (byToken.remove(token.token(), token)) {
+            if (byEmail.remove(token.email(), token)) {
+                pendingWrites.put(token.userId(), Optional.empty());
+            }
+        }
+    }
+
+    /**
+     * Elimina el token de un usuario, si tiene uno. Se usa al cambiar la contraseña.
+     */
+    public void removeByEmail(String email) {
+        findByEmail(email).ifPresent(this::remove);
+    }
+
+    /**
+     * Descarta los tokens vencidos agendados en la rueda de temporización.
+     */
+    public void expire() {
+        Instant now = Instant.now();
+        expirations.advance(now.toEpochMilli(), token -> {
+            IssuedRefreshToken issued = byToken.get(token);
+            // La rueda no admite cancelaciones: el token puede haber sido reemplazado o renovado
+            if (issued != null && issued.isExpired(now)) {
+                remove(issued);
+            }
+        });
+    }
+
+    /**
+     * Persiste los cambios pendientes en una transacción: primero se eliminan las filas de los usuarios afectados
+     * y después se insertan sus tokens vigentes, usando referencias a los usuarios sin cargarlos.
+     */
+    public synchronized void flush() {
+        if (pendingWrites.isEmpty()) {
+            return;
+        }
+
+        Map<Integer, Optional<IssuedRefreshToken>> batch = new HashMap<>();
+        for (Integer userId : List.copyOf(pendingWrites.keySet())) {
+            Optional<IssuedRefreshToken> write = pendingWrites.remove(userId);
+            if (write != null) {
+                batch.put(userId, write);
+            }
+        }
+
+        try {
+            persist(batch);
+            failedAttempts.keySet().removeAll(batch.keySet());
+        } catch (NonTransientDataAccessException e) {
+            if (batch.size() == 1) {
+                batch.forEach((userId, write) -> reject(userId, write, e));
+            } else {
+                // Una fila rechazada hace fallar todo el lote: se reintenta por usuario para no bloquear a los demás
+                log.warn("Could not persist {} refresh token changes, retrying per user", batch.size(), e);
+                batch.forEach(this::persistSingle);
+            }
+        } catch (RuntimeException e) {
+            // Se reintenta en la próxima escritura, sin pisar cambios más nuevos del mismo usuario
+            batch.forEach(pendingWrites::putIfAbsent);
+            log.warn("Could not persist {} refresh token changes, will retry", batch.size(), e);
+        }
+    }
+
+    @PreDestroy
+    public void shutdown() throws InterruptedException {
+        scheduler.shutdown();
+        scheduler.awaitTermination(5, TimeUnit.SECONDS);
+        flush();
+    }
+
+    private void persistSingle(Integer userId, Optional<IssuedRefreshToken> write) {
+        try {
+            persist(Map.of(userId, write));
+            failedAttempts.remove(userId);
+        } catch (NonTransientDataAccessException e) {
+            reject(userId, write, e);
+        } catch (RuntimeException e) {
+            pendingWrites.putIfAbsent(userId, write);
+        }
+    }
+
+    // Cuenta un rechazo de la base de datos; el cambio se reintenta hasta MAX_ATTEMPTS veces y después se descarta
+    private void reject(Integer userId, Optional<IssuedRefreshToken> write, RuntimeException e) {
+        int attempts = failedAttempts.merge(userId, 1, Integer::sum);
+        if (attempts >= MAX_ATTEMPTS) {
+            failedAttempts.remove(userId);
+            log.error("Dropping refresh token change for user {} after {} failed attempts", userId, attempts, e);
+        } else {
+            pendingWrites.putIfAbsent(userId, write);
+        }
+    }
+
+    private void persist(Map<Integer, Optional<IssuedRefreshToken>> writes) {
+        transactionTemplate.executeWithoutResult(status -> {
+            refreshTokenRepository.deleteAllByUserIds(writes.keySet());
+            List<RefreshToken> rows = new ArrayList<>();
+            for (Optional<IssuedRefreshToken> write : writes.values()) {
+                write.ifPresent(token -> rows.add(RefreshToken.builder()
+                        .refreshToken(token.token())
+                        .expirationTime(token.expiresAt())
+                        .user(entityManager.getReference(User.class, token.userId()))
+                        .build()));
+            }
+            rows.forEach(entityManager::persist);
+        });
+    }
+
+    // Una excepción no capturada cancelaría las siguientes ejecuciones de la tarea
+    private static void runSafely(String task, Runnable runnable) {
+        try {
+            runnable.run();
+        } catch (RuntimeException e) {
+            log.warn("Refresh token store {} failed", task, e);
+        }
+    }
+
+    private void index(IssuedRefreshToken token) {
+        IssuedRefreshToken previous = byEmail.put(token.email(), token);
+        if (previous != null && !previous.token().equals(token.token())) {
+            byToken.remove(previous.token(), previous);
+        }
+        byToken.put(token.token(), token);
+        expirations.schedule(token.token(), token.expiresAt().toEpochMilli());
+    }
+}
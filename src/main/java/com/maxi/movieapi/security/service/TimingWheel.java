@@ -0,0 +1,110 @@
+package com.maxi.movieapi.security.service;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.function.Consumer;
+
+/**
+ * Rueda de temporización jerárquica: agenda vencimientos en O(1) y los entrega a medida que avanza el reloj,
+ * sin ordenar ni recorrer todas las entradas. Tiene 4 niveles de 64 casilleros; cada nivel cubre 64 veces el rango
+ * del anterior, y las entradas de un nivel superior se redistribuyen hacia abajo cuando su casillero se acerca.
+ * Los vencimientos más lejanos que el rango total se reagendan al llegar al último casillero.
+ * <p>
+ * No admite cancelaciones: quien la usa debe verificar al recibir una clave que siga vencida.
+ * Es segura entre hilos mediante sincronización sobre la propia instancia.
+ */
+final class TimingWheel<K> {
+
+    private static final int BITS = 6;
+    private static final int SLOTS = 1 << BITS;
+    private static final int LEVELS = 4;
+    private static final long MAX_SPAN = 1L << (BITS * LEVELS);
+
+    private record Timer<K>(K key, long tick) {
+    }
+
+    private final long tickMillis;
+    private final List<List<List<Timer<K>>>> levels = new ArrayList<>();
+    private long currentTick;
+    private int size;
+
+    TimingWheel(long tickMillis, long nowMillis) {
+        this.tickMillis = tickMillis;
+        this.currentTick = nowMillis / tickMillis;
+        for (int level = 0; level < LEVELS; level++) {
+            List<List<Timer<K>>> slots = new ArrayList<>(SLOTS);
+            for (int slot = 0; slot < SLOTS; slot++) {
+                slots.add(new ArrayList<>());
+            }
+            levels.add(slots);
+        }
+    }
+
+    /**
+     * Agenda el vencimiento de una clave. Si la fecha ya pasó, se entrega en el próximo avance.
+     */
+    synchronized void schedule(K key, long deadlineMillis) {
+        // Se redondea hacia arriba para no entregar nunca una clave antes de su vencimiento
+        long tick = Math.max(currentTick + 1, (deadlineMillis + tickMillis - 1) / tickMillis);
+        insert(new Timer<>(key, tick));
+        size++;
+    }
+
+    /**
+     * Avanza el reloj hasta la hora indicada y entrega las claves vencidas.
+     */
+    synchronized void advance(long nowMillis, Consumer<K> onExpired) {
+        long targetTick = nowMillis / tickMillis;
+        while (currentTick < targetTick) {
+            currentTick++;
+            cascade();
+            List<Timer<K>> due = levels.get(0).get((int) (currentTick & (SLOTS - 1)));
+            if (due.isEmpty()) {
+                continue;
+            }
+            List<Timer<K>> timers = new ArrayList<>(due);
+            due.clear();
+            for (Timer<K> timer : timers) {
+                if (timer.tick() <= currentTick) {
+                    size--;
+                    onExpired.accept(timer.key());
+                } else {
+                    insert(timer);
+                }
+            }
+        }
+    }
+
+    synchronized int size() {
+        return size;
+    }
+
+    // Al completar una vuelta de un nivel, se redistribuye el casillero actual del nivel superior
+    private void cascade() {
+        for (int level = 1; level < LEVELS; level++) {
+            int shift = BITS * level;
+            if ((currentTick & ((1L << shift) - 1)) != 0) {
+                return;
+            }
+            List<Timer<K>> slot = levels.get(level).get((int) ((currentTick >>> shift) & (SLOTS - 1)));
+            if (!slot.isEmpty()) {
+                List<Timer<K>> timers = new ArrayList<>(slot);
+                slot.clear();
+                timers.forEach(this::insert);
+            }
+        }
+    }
+
+    private void insert(Timer<K> timer) {
+        // Los vencimientos fuera de rango se ubican en el último casillero alcanzable y se reagendan desde ahí
+        long tick = Math.min(timer.tick(), currentTick + MAX_SPAN - 1);
+        long delta = tick - currentTick;
+        for (int level = 0; level < LEVELS; level++) {
+            int shift = BITS * level;
+            if (delta < (1L << (shift + BITS)) || level == LEVELS - 1) {
+                levels.get(level).get((int) ((tick >>> shift) & (SLOTS - 1))).add(timer);
+                return;
+            }
+        }
+    }
+}
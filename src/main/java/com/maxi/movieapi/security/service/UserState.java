@@ -0,0 +1,33 @@
+package com.maxi.movieapi.security.service;
+
+import com.maxi.movieapi.security.entities.UserRole;
+
+import java.time.Instant;
+
+/**
+ * Estado de un usuario necesario para autenticar una solicitud con JWT, sin cargar la entidad completa.
+ *
+ * @param email             El email del usuario, que es el subject de sus tokens.
+ * @param role              El rol actual del usuario.
+ * @param passwordChangedAt La fecha del último cambio de contraseña, o {@code null} si nunca la cambió.
+ */
+public record UserState(String email, UserRole role, Instant passwordChangedAt) {
+
+    /**
+     * Indica si un token emitido en la fecha indicada sigue siendo válido para este usuario:
+     * los tokens emitidos antes de un cambio de contraseña se rechazan. El claim "iat" tiene precisión de segundos,
+     * por lo que la fecha del cambio se redondea al segundo siguiente: un token emitido en el mismo segundo que el
+     * cambio, pero antes de él, también se rechaza.
+     */
+    public boolean accepts(VerifiedToken token) {
+        if (passwordChangedAt != null
+                && (token.issuedAt() == null || token.issuedAt().getEpochSecond() < passwordChangedSecond())) {
+            return false;
+        }
+        return token.roles().contains(role.name());
+    }
+
+    private long passwordChangedSecond() {
+        return passwordChangedAt.getNano() == 0 ? passwordChangedAt.getEpochSecond() : passwordChangedAt.getEpochSecond() + 1;
+    }
+}
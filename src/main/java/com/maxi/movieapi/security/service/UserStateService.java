@@ -0,0 +1,58 @@
+package com.maxi.movieapi.security.service;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.maxi.movieapi.security.repository.UserRepository;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import java.time.Duration;
+import java.util.Optional;
+
+/**
+ * Caché de corta duración del estado de los usuarios (rol y fecha del último cambio de contraseña),
+ * usada para autenticar solicitudes con JWT sin consultar la base de datos en cada una.
+ * Quien modifique la contraseña o el rol de un usuario debe llamar a {@link #invalidate(String)};
+ * el vencimiento acota el tiempo durante el cual un cambio hecho por otra instancia no se ve.
+ */
+@Service
+public class UserStateService {
+
+    private final UserRepository userRepository;
+    private final Cache<String, UserState> states;
+
+    public UserStateService(UserRepository userRepository,
+                            @Value("${jwt.user-state.ttl:PT30S}") Duration ttl,
+                            @Value("${jwt.user-state.maximum-size:10000}") long maximumSize,
+                            MeterRegistry meterRegistry) {
+        this.userRepository = userRepository;
+        this.states = Caffeine.newBuilder()
+                .expireAfterWrite(ttl)
+                .maximumSize(maximumSize)
+                .recordStats()
+                .build();
+        CaffeineCacheMetrics.monitor(meterRegistry, states, "jwt.user-states");
+    }
+
+    /**
+     * Obtiene el estado de un usuario, consultándolo solo si no está en caché.
+     * Los usuarios inexistentes no se guardan en caché.
+     *
+     * @param email El email del usuario.
+     * @return El estado del usuario, o vacío si no existe.
+     */
+    public Optional<UserState> get(String email) {
+        return Optional.ofNullable(states.get(email, key -> userRepository.findStateByEmail(key).orElse(null)));
+    }
+
+    /**
+     * Descarta el estado en caché de un usuario, por ejemplo después de cambiar su contraseña o su rol.
+     *
+     * @param email El email del usuario.
+     */
+    public void invalidate(String email) {
+        states.invalidate(email);
+    }
+}
@@ -0,0 +1,23 @@
+package com.maxi.movieapi.security.service;
+
+import java.time.Instant;
+import java.util.List;
+
+/**
+ * Contenido de un JWT cuya firma y vencimiento ya fueron verificados por {@link JwtService}.
+ *
+ * @param subject   El usuario al que pertenece el token (su email).
+ * @param roles     Los roles incluidos en el claim "role".
+ * @param issuedAt  La fecha de emisión.
+ * @param expiresAt La fecha de vencimiento.
+ */
+public record VerifiedToken(String subject, List<String> roles, Instant issuedAt, Instant expiresAt) {
+
+    public VerifiedToken {
+        roles = List.copyOf(roles);
+    }
+
+    public boolean isExpired(Instant now) {
+        return !expiresAt.isAfter(now);
+    }
+}
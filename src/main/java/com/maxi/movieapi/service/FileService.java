@@ -1,16 +1,27 @@
 package com.maxi.movieapi.service;
 
+import com.maxi.movieapi.service.storage.PosterStorage;
 import org.springframework.web.multipart.MultipartFile;
 
 import java.io.FileNotFoundException;
 import java.io.IOException;
 import java.io.InputStream;
+import java.nio.channels.WritableByteChannel;
+import java.util.Optional;
 
 public interface FileService {
-    // Subir archivo al servidor
-    String uploadFile(String path, MultipartFile file) throws IOException;
-    // Obtener archivo del servidor
-    InputStream getResourceFile(String path, String filename) throws FileNotFoundException;
-    // Eliminar archivo del servidor
-    void deleteFile(String path, String filename) throws IOException;
+    // Subir archivo al almacenamiento de pósters, extrayendo sus metadatos en la misma lectura
+    UploadedPoster uploadFile(MultipartFile file) throws IOException;
+    // Subir archivo leyendo el flujo una sola vez; lanza FileTooLargeException si supera maxBytes
+    UploadedPoster uploadFile(InputStream content, String originalFilename, long maxBytes) throws IOException;
+    // Obtener archivo del almacenamiento
+    InputStream getResourceFile(String filename) throws IOException;
+    // Obtener el tamaño y la fecha de modificación de un archivo existente, sin abrirlo
+    PosterStorage.StoredObject getResourceInfo(String filename) throws IOException;
+    // Obtener el tipo MIME detectado al subir el archivo, si alguna película lo referencia
+    Optional<String> getMimeType(String filename);
+    // Escribir un rango del archivo en el canal indicado
+    long transferTo(String filename, long position, long count, WritableByteChannel target) throws IOException;
+    // Eliminar archivo del almacenamiento
+    void deleteFile(String filename) throws IOException;
 }
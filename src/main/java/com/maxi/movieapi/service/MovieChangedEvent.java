@@ -0,0 +1,17 @@
+package com.maxi.movieapi.service;
+
+import com.maxi.movieapi.dto.MovieDto;
+
+/**
+ * Evento publicado por {@link MovieService} cada vez que se agrega, actualiza o elimina una película.
+ * Las estructuras en memoria que derivan del catálogo lo escuchan una vez confirmada la transacción.
+ *
+ * @param id    El identificador de la película afectada.
+ * @param movie El estado nuevo de la película, o {@code null} si fue eliminada.
+ */
+public record MovieChangedEvent(Long id, MovieDto movie) {
+
+    public boolean isDeleted() {
+        return movie == null;
+    }
+}
@@ -0,0 +1,37 @@
+package com.maxi.movieapi.service;
+
+import java.io.IOException;
+import java.io.OutputStream;
+
+/**
+ * Interfaz que define la exportación completa del catálogo de películas.
+ */
+public interface MovieExportService {
+
+    /**
+     * Formatos de exportación admitidos.
+     */
+    enum Format {
+        NDJSON, CSV;
+
+        public static Format from(String value) {
+            for (Format format : values()) {
+                if (format.name().equalsIgnoreCase(value)) {
+                    return format;
+                }
+            }
+            throw new IllegalArgumentException("Format must be one of ndjson, csv");
+        }
+    }
+
+    /**
+     * Escribe el catálogo comprimido con gzip, película por película, directamente desde un cursor de base de datos.
+     * El consumo de memoria es constante sin importar la cantidad de películas.
+     *
+     * @param out     El flujo de salida donde se escribe la exportación.
+     * @param format  El formato de cada fila.
+     * @param afterId Reanuda la exportación a partir de las películas con id mayor a este valor (0 para todas).
+     * @throws IOException Si ocurre un error al escribir en el flujo.
+     */
+    void exportMovies(OutputStream out, Format format, Long afterId) throws IOException;
+}
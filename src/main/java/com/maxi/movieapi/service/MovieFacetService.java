@@ -0,0 +1,21 @@
+package com.maxi.movieapi.service;
+
+import com.maxi.movieapi.dto.MovieFacetsDto;
+
+/**
+ * Interfaz que define la agregación de facetas del catálogo de películas.
+ */
+public interface MovieFacetService {
+
+    /**
+     * Obtiene la cantidad de películas por estudio, director y década de lanzamiento.
+     * Los filtros son opcionales; los valores {@code null} no filtran.
+     * Las películas sin año de lanzamiento, o con un año fuera del rango, no se cuentan en ninguna década.
+     *
+     * @param studio   Filtra por estudio (sin distinguir mayúsculas).
+     * @param director Filtra por director (sin distinguir mayúsculas).
+     * @param decade   Filtra por década; se acepta cualquier año de la década. Fuera de 1880-2109 no hay películas.
+     * @return Los conteos por faceta.
+     */
+    MovieFacetsDto getFacets(String studio, String director, Integer decade);
+}
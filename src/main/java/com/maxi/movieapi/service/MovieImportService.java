@@ -0,0 +1,24 @@
+package com.maxi.movieapi.service;
+
+import com.maxi.movieapi.dto.MovieImportResultDto;
+
+import java.io.IOException;
+import java.io.InputStream;
+
+/**
+ * Interfaz que define la importación masiva de películas.
+ */
+public interface MovieImportService {
+
+    /**
+     * Importa películas desde un flujo NDJSON (un objeto {@code MovieDto} por línea).
+     * El flujo se procesa de forma incremental y se confirma por bloques; una fila inválida
+     * se informa en el resultado sin abortar el resto de la importación.
+     * El póster de cada fila debe hacer referencia a un archivo ya subido.
+     *
+     * @param ndjson El flujo de entrada en formato NDJSON.
+     * @return El resumen de la importación, con los errores por fila.
+     * @throws IOException Si ocurre un error al leer el flujo.
+     */
+    MovieImportResultDto importMovies(InputStream ndjson) throws IOException;
+}
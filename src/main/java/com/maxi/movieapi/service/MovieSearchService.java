@@ -0,0 +1,21 @@
+package com.maxi.movieapi.service;
+
+import com.maxi.movieapi.dto.MovieDto;
+
+import java.util.List;
+
+/**
+ * Interfaz que define la búsqueda de texto completo sobre el catálogo de películas.
+ */
+public interface MovieSearchService {
+
+    /**
+     * Busca películas por título, director, estudio y reparto.
+     * La búsqueda ignora mayúsculas y acentos, y el último término se interpreta como prefijo.
+     *
+     * @param query El texto a buscar.
+     * @param limit La cantidad máxima de resultados.
+     * @return Las películas encontradas, ordenadas por relevancia.
+     */
+    List<MovieDto> searchMovies(String query, int limit);
+}
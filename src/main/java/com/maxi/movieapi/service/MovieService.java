@@ -7,6 +7,7 @@ import org.springframework.web.multipart.MultipartFile;
 import java.io.IOException;
 import java.util.List;
 import java.util.Optional;
+import java.util.function.Consumer;
 
 /**
  * Interfaz que define los servicios relacionados con la gestión de películas.
@@ -40,6 +41,16 @@ public interface MovieService {
      */
     List<MovieDto> getAllMovies();
 
+    /**
+     * Recorre todas las películas del sistema sin materializarlas en memoria.
+     * Cada película se entrega al consumidor a medida que se lee de la base de datos.
+     *
+     * @param afterId  Solo se recorren las películas con id mayor a este valor (0 para todas),
+     *                 lo que permite reanudar un recorrido interrumpido.
+     * @param consumer El consumidor que recibe cada DTO de película, en orden de id.
+     */
+    void streamAllMovies(Long afterId, Consumer<MovieDto> consumer);
+
     /**
      * Actualiza los datos de una película existente.
      *
@@ -54,11 +65,12 @@ public interface MovieService {
 
     /**
      * Elimina una película del sistema.
+     * El póster no se elimina en la misma operación: el recolector de pósters huérfanos, si está activo, lo reclama cuando
+     * ninguna película lo referencia.
      *
      * @param id El identificador único de la película a eliminar.
-     * @throws IOException Si ocurre un error al eliminar el archivo de imagen asociado.
      */
-    void deleteMovie(Long id) throws IOException;
+    void deleteMovie(Long id);
 
     /**
      * Obtiene una página de películas.
@@ -79,4 +91,45 @@ public interface MovieService {
      * @return Un DTO que contiene la lista de películas y la información de paginación.
      */
     MoviePageResponseDto getAllMoviesByPageAndSorting(int page, int size, String sortBy, String order);
+
+    /**
+     * Obtiene una página de películas sin contar el total de registros.
+     * Los totales de la respuesta son aproximados (provienen de un conteo en caché) o -1 si aún no se conocen.
+     *
+     * @param page El número de página (comenzando desde 0).
+     * @param size El tamaño de la página (número de películas por página).
+     * @return Un DTO que contiene la lista de películas y la información de paginación.
+     */
+    MoviePageResponseDto getAllMoviesBySlice(int page, int size);
+
+    /**
+     * Obtiene una página de películas con ordenamiento, sin contar el total de registros.
+     *
+     * @param page   El número de página (comenzando desde 0).
+     * @param size   El tamaño de la página (número de películas por página).
+     * @param sortBy El campo por el cual ordenar las películas.
+     * @param order  El orden de clasificación (ascendente o descendente).
+     * @return Un DTO que contiene la lista de películas y la información de paginación.
+     */
+    MoviePageResponseDto getAllMoviesBySliceAndSorting(int page, int size, String sortBy, String order);
+
+    /**
+     * Obtiene una página de películas usando paginación por cursor (keyset).
+     * El costo de cada página es constante sin importar qué tan profundo se encuentre el cliente.
+     *
+     * @param cursor El token de continuación devuelto por la página anterior, o {@code null} para la primera página.
+     * @param size   El tamaño de la página (número de películas por página).
+     * @param sortBy El campo por el cual ordenar; se ignora si se envía un cursor.
+     * @param order  El orden de clasificación (ascendente o descendente); se ignora si se envía un cursor.
+     * @return Un DTO con la lista de películas y el cursor de la página siguiente.
+     */
+    MoviePageResponseDto getMoviesByCursor(String cursor, int size, String sortBy, String order);
+
+    /**
+     * Obtiene la versión global del catálogo, que cambia cada vez que se confirma el alta, modificación o baja de una
+     * película, y cada vez que se refresca con otro valor el conteo aproximado del modo slice. Permite validar respuestas de listados en caché sin volver a consultarlas.
+     *
+     * @return La versión actual del catálogo.
+     */
+    long getCatalogVersion();
 }
\ No newline at end of file
@@ -0,0 +1,12 @@
+package com.maxi.movieapi.service;
+
+/**
+ * Evento publicado por {@link PosterVariantService} cuando termina de generar las variantes de un póster,
+ * con el color de relleno calculado a partir de la variante más chica.
+ *
+ * @param fileName    El nombre del póster original.
+ * @param placeholder El color promedio en formato "#rrggbb".
+ */
+public record PosterPlaceholderEvent(String fileName, String placeholder) {
+
+}
@@ -0,0 +1,110 @@
+package com.maxi.movieapi.service;
+
+import java.io.IOException;
+import java.util.Map;
+import java.util.Optional;
+
+/**
+ * Interfaz que define la generación de variantes redimensionadas de los pósters.
+ */
+public interface PosterVariantService {
+
+    /**
+     * Variantes disponibles de un póster; el ancho máximo es 0 para el original.
+     */
+    enum Variant {
+        SMALL(200), MEDIUM(500), ORIGINAL(0);
+
+        private final int maxWidth;
+
+        Variant(int maxWidth) {
+            this.maxWidth = maxWidth;
+        }
+
+        public int maxWidth() {
+            return maxWidth;
+        }
+
+        public static Variant from(String value) {
+            for (Variant variant : values()) {
+                if (variant.name().equalsIgnoreCase(value)) {
+                    return variant;
+                }
+            }
+            throw new IllegalArgumentException("Variant must be one of small, medium, original");
+        }
+
+        /**
+         * Nombre del archivo de esta variante, guardado junto al original (por ejemplo "abc_small.png").
+         */
+        public String fileName(String original) {
+            if (this == ORIGINAL) {
+                return original;
+            }
+            int dot = original.lastIndexOf('.');
+            String suffix = "_" + name().toLowerCase();
+            return dot < 0 ? original + suffix : original.substring(0, dot) + suffix + original.substring(dot);
+        }
+
+        /**
+         * Nombre del póster original del que deriva un archivo (por ejemplo "abc.png" para "abc_small.png").
+         */
+        public static String originalName(String fileName) {
+            int dot = fileName.lastIndexOf('.');
+            String base = dot < 0 ? fileName : fileName.substring(0, dot);
+            String extension = dot < 0 ? "" : fileName.substring(dot);
+            for (Variant variant : values()) {
+                String suffix = "_" + variant.name().toLowerCase();
+                if (variant != ORIGINAL && base.endsWith(suffix)) {
+                    return base.substring(0, base.length() - suffix.length()) + extension;
+                }
+            }
+            return fileName;
+        }
+    }
+
+    /**
+     * Estado de la generación de variantes de un póster.
+     */
+    enum Status {
+        PENDING, READY, FAILED
+    }
+
+    /**
+     * Encola la generación de las variantes de un póster recién subido.
+     * No tiene efecto si ya está encolada o si el póster no pudo procesarse antes.
+     * Si la cola está llena la solicitud se descarta; se vuelve a encolar al pedirse una variante.
+     *
+     * @param fileName El nombre del póster original.
+     */
+    void scheduleVariants(String fileName);
+
+    /**
+     * Obtiene el nombre del archivo de una variante. Si todavía no existe se devuelve el original y se encola
+     * su generación, salvo que el póster no pueda procesarse como imagen.
+     *
+     * @param fileName El nombre del póster original.
+     * @param variant  La variante solicitada.
+     * @return El nombre del archivo a servir.
+     * @throws IOException Si ocurre un error al leer o escribir los archivos.
+     */
+    String resolveVariant(String fileName, Variant variant) throws IOException;
+
+    /**
+     * Calcula el color de relleno de un póster a partir de su variante más chica, sin decodificar el original.
+     * Al generarse las variantes el color se publica en un {@link PosterPlaceholderEvent}.
+     *
+     * @param fileName El nombre del póster original.
+     * @return El color promedio en formato "#rrggbb", o vacío si la variante todavía no existe.
+     * @throws IOException Si ocurre un error al leer la variante.
+     */
+    Optional<String> getPlaceholder(String fileName) throws IOException;
+
+    /**
+     * Obtiene el estado de la generación de variantes de un póster.
+     *
+     * @param fileName El nombre del póster original.
+     * @return El estado de cada variante redimensionada.
+     */
+    Map<Variant, Status> getStatus(String fileName);
+}
@@ -0,0 +1,13 @@
+package com.maxi.movieapi.service;
+
+import com.maxi.movieapi.dto.PosterMetadataDto;
+
+/**
+ * Resultado de subir un póster con {@link FileService}.
+ *
+ * @param fileName El nombre con el que quedó guardado: el hash SHA-256 del contenido más la extensión.
+ * @param metadata Los metadatos extraídos durante la misma lectura del archivo.
+ */
+public record UploadedPoster(String fileName, PosterMetadataDto metadata) {
+
+}
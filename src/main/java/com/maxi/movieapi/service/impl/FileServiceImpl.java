@@ -1,62 +1,250 @@
 package com.maxi.movieapi.service.impl;
 
+import com.maxi.movieapi.dto.PosterMetadataDto;
+import com.maxi.movieapi.exceptions.FileTooLargeException;
+import com.maxi.movieapi.repository.MovieRepository;
 import com.maxi.movieapi.service.FileService;
+import com.maxi.movieapi.service.PosterVariantService;
+import com.maxi.movieapi.service.UploadedPoster;
+import com.maxi.movieapi.service.storage.PosterStorage;
+import org.springframework.http.MediaType;
+import org.springframework.http.MediaTypeFactory;
 import org.springframework.security.access.prepost.PreAuthorize;
 import org.springframework.stereotype.Service;
 import org.springframework.web.multipart.MultipartFile;
 
 import java.io.*;
-import java.nio.file.Files;
-import java.nio.file.Path;
-import java.nio.file.Paths;
-import java.nio.file.StandardCopyOption;
+import java.nio.channels.WritableByteChannel;
+import java.security.DigestInputStream;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.HexFormat;
+import java.util.Locale;
+import java.util.Optional;
 
 @Service
 public class FileServiceImpl implements FileService {
 
+    private final PosterStorage posterStorage;
+    private final PosterVariantService posterVariantService;
+    private final PosterCache posterCache;
+    private final MovieRepository movieRepository;
+
+    public FileServiceImpl(PosterStorage posterStorage, PosterVariantService posterVariantService, PosterCache posterCache,
+                           MovieRepository movieRepository) {
+        this.posterStorage = posterStorage;
+        this.posterVariantService = posterVariantService;
+        this.posterCache = posterCache;
+        this.movieRepository = movieRepository;
+    }
+
     @PreAuthorize("hasAuthority('ROLE_USER')")
     @Override
-    public String uploadFile(String path, MultipartFile file) throws IOException {
-        //Obtener el nombre del archivo
-        String fileName = file.getOriginalFilename();
+    public UploadedPoster uploadFile(MultipartFile file) throws IOException {
+        try (InputStream in = file.getInputStream()) {
+            return store(in, file.getOriginalFilename(), Long.MAX_VALUE);
+        }
+    }
 
-        //Obtener la ruta del archivo
-        String filePath = path + File.separator + fileName;
+    @PreAuthorize("hasAuthority('ROLE_USER')")
+    @Override
+    public UploadedPoster uploadFile(InputStream content, String originalFilename, long maxBytes) throws IOException {
+        return store(content, originalFilename, maxBytes);
+    }
 
-        //Crear el objeto archivo
-        File f = new File(path);
+    /**
+     * Guarda el archivo con direccionamiento por contenido: el nombre final es el hash SHA-256 del contenido
+     * más la extensión original. El hash se calcula mientras se escribe en el área temporal del almacenamiento,
+     * que al confirmarse queda bajo ese nombre; si ya existe un archivo con el mismo contenido, se reutiliza.
+     * En la misma lectura se extraen las dimensiones y el tipo de la imagen: el lector de imágenes consume solo
+     * la cabecera del flujo que se va escribiendo en el almacenamiento, y el resto se copia sin decodificar.
+     * El color de relleno se calcula después, al generar las variantes.
+     */
+    private UploadedPoster store(InputStream content, String originalFilename, long maxBytes) throws IOException {
+        //Escribir el contenido calculando su hash y controlando el tamaño
+        MessageDigest digest = sha256();
+        try (PosterStorage.Staging staging = posterStorage.stage()) {
+            LimitedInputStream limited = new LimitedInputStream(content, maxBytes);
+            InputStream in = new TeeInputStream(new DigestInputStream(limited, digest), staging.outputStream());
+            PosterMetadataExtractor.ImageInfo image = readImage(in);
+            in.transferTo(OutputStream.nullOutputStream());
 
-        //Si el directorio no existe, se crea
-        if (!f.exists()) {
-            f.mkdirs();
+            //Obtener el nombre del archivo a partir del hash y confirmarlo
+            String fileName = HexFormat.of().formatHex(digest.digest()) + extensionOf(originalFilename);
+            staging.commit(fileName);
+
+            //Generar las variantes redimensionadas en segundo plano
+            posterCache.invalidate(fileName);
+            posterVariantService.scheduleVariants(fileName);
+
+            String mimeType = image != null && image.mimeType() != null
+                    ? image.mimeType()
+                    : MediaTypeFactory.getMediaType(fileName).orElse(MediaType.APPLICATION_OCTET_STREAM).toString();
+            PosterMetadataDto metadata = image == null
+                    ? new PosterMetadataDto(null, null, mimeType, limited.count, null)
+                    : new PosterMetadataDto(image.width(), image.height(), mimeType, limited.count, null);
+            return new UploadedPoster(fileName, metadata);
         }
+    }
+
+    // Los archivos que no son imágenes, o cuya cabecera está dañada, se guardan igual pero sin dimensiones
+    private static PosterMetadataExtractor.ImageInfo readImage(InputStream in) throws IOException {
+        try {
+            return PosterMetadataExtractor.extract(in);
+        } catch (FileTooLargeException e) {
+            throw e;
+        } catch (IOException | RuntimeException e) {
+            return null;
+        }
+    }
 
-        //Copiar el archivo al directorio
-        Files.copy(file.getInputStream(), Paths.get(filePath), StandardCopyOption.REPLACE_EXISTING);
+    @PreAuthorize("hasAuthority('ROLE_USER')")
+    @Override
+    public InputStream getResourceFile(String filename) throws IOException {
+        return posterStorage.openStream(filename);
+    }
 
-        return fileName;
+    @PreAuthorize("hasAuthority('ROLE_USER')")
+    @Override
+    public PosterStorage.StoredObject getResourceInfo(String filename) throws IOException {
+        return posterStorage.stat(filename)
+                .orElseThrow(() -> new FileNotFoundException("No se encontró el archivo"));
     }
 
+    // Las variantes se escriben en el formato del original: se usa el tipo guardado para el póster original
     @PreAuthorize("hasAuthority('ROLE_USER')")
     @Override
-    public InputStream getResourceFile(String path, String filename) throws FileNotFoundException {
-        try {
-            String filepath = path + File.separator + filename;
-            return new FileInputStream(filepath);
-        } catch (IOException e) {
-            throw new FileNotFoundException("No se encontró el archivo");
-        }
+    public Optional<String> getMimeType(String filename) {
+        return movieRepository.findPosterMimeTypes(PosterVariantService.Variant.originalName(filename)).stream().findFirst();
     }
 
     @PreAuthorize("hasAuthority('ROLE_USER')")
     @Override
-    public void deleteFile(String path, String filename) throws IOException {
-        Path filepath = Paths.get(path, filename);
+    public long transferTo(String filename, long position, long count, WritableByteChannel target) throws IOException {
+        return posterStorage.transferTo(filename, position, count, target);
+    }
 
-        if (Files.exists(filepath)) {
-            Files.delete(filepath);
-        } else {
+    @PreAuthorize("hasAuthority('ROLE_USER')")
+    @Override
+    public void deleteFile(String filename) throws IOException {
+        if (!posterStorage.delete(filename)) {
             throw new FileNotFoundException("No se encontró el archivo");
         }
+        //Eliminar también las variantes generadas a partir del archivo, y quitarlos de la caché
+        for (PosterVariantService.Variant variant : PosterVariantService.Variant.values()) {
+            if (variant != PosterVariantService.Variant.ORIGINAL) {
+                posterStorage.delete(variant.fileName(filename));
+            }
+            posterCache.invalidate(variant.fileName(filename));
+        }
+    }
+
+    // Extensión del nombre original en minúsculas (por ejemplo ".png"), o vacía si no es válida
+    private static String extensionOf(String originalFilename) {
+        if (originalFilename == null) {
+            return "";
+        }
+        int dot = originalFilename.lastIndexOf('.');
+        String extension = dot < 0 ? "" : originalFilename.substring(dot + 1).toLowerCase(Locale.ROOT);
+        return extension.matches("[a-z0-9]{1,5}") ? "." + extension : "";
+    }
+
+    private static MessageDigest sha256() {
+        try {
+            return MessageDigest.getInstance("SHA-256");
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 not available", e);
+        }
+    }
+
+    // Flujo que copia en la salida todo lo que se lee, para procesar el contenido mientras se guarda
+    private static final class TeeInputStream extends FilterInputStream {
+
+        private final OutputStream out;
+
+        private TeeInputStream(InputStream in, OutputStream out) {
+            super(in);
+            this.out = out;
+        }
+
+        @Override
+        public int read() throws IOException {
+            int b = super.read();
+            if (b >= 0) {
+                out.write(b);
+            }
+            return b;
+        }
+
+        @Override
+        public int read(byte[] buffer, int offset, int length) throws IOException {
+            int n = super.read(buffer, offset, length);
+            if (n > 0) {
+                out.write(buffer, offset, n);
+            }
+            return n;
+        }
+
+        // Los bytes salteados también deben llegar a la salida
+        @Override
+        public long skip(long n) throws IOException {
+            byte[] buffer = new byte[(int) Math.min(n, 8192)];
+            long skipped = 0;
+            while (skipped < n) {
+                int read = read(buffer, 0, (int) Math.min(buffer.length, n - skipped));
+                if (read < 0) {
+                    break;
+                }
+                skipped += read;
+            }
+            return skipped;
+        }
+
+        @Override
+        public boolean markSupported() {
+            return false;
+        }
+
+        // El flujo de entrada lo cierra quien lo abrió y la salida, el almacenamiento
+        @Override
+        public void close() {
+        }
+    }
+
+    // Flujo que corta la lectura en cuanto se supera el tamaño máximo, sin esperar al final de la subida
+    private static final class LimitedInputStream extends FilterInputStream {
+
+        private final long maxBytes;
+        private long count;
+
+        private LimitedInputStream(InputStream in, long maxBytes) {
+            super(in);
+            this.maxBytes = maxBytes;
+        }
+
+        @Override
+        public int read() throws IOException {
+            int b = super.read();
+            if (b >= 0) {
+                count(1);
+            }
+            return b;
+        }
+
+        @Override
+        public int read(byte[] buffer, int offset, int length) throws IOException {
+            int n = super.read(buffer, offset, length);
+            if (n > 0) {
+                count(n);
+            }
+            return n;
+        }
+
+        private void count(int n) {
+            count += n;
+            if (count > maxBytes) {
+                throw new FileTooLargeException("File exceeds the maximum size of " + maxBytes + " bytes");
+            }
+        }
     }
 }
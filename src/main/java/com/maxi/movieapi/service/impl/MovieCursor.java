@@ -0,0 +1,113 @@
+package com.maxi.movieapi.service.impl;
+
+import com.maxi.movieapi.entities.Movie;
+import org.springframework.data.domain.ScrollPosition;
+import org.springframework.data.domain.Sort;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Base64;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Token opaco de continuación para la paginación por cursor (keyset).
+ * Guarda el campo y sentido de ordenamiento junto con la clave de orden y el id de la última película entregada,
+ * de modo que la siguiente página se obtiene con un predicado de búsqueda en lugar de OFFSET.
+ */
+record MovieCursor(String sortBy, Sort.Direction direction, Object sortValue, Long id) {
+
+    static final Set<String> SORTABLE_FIELDS = Set.of("id", "title", "director", "studio", "releaseYear");
+
+    private static final String SEPARATOR = "\u0000";
+
+    // Prefijo de una clave de orden presente; sin él el campo se codifica vacío y representa null
+    private static final String VALUE_PREFIX = "=";
+
+    static MovieCursor first(String sortBy, Sort.Direction direction) {
+        validateSortField(sortBy);
+        return new MovieCursor(sortBy, direction, null, null);
+    }
+
+    static MovieCursor after(Movie movie, String sortBy, Sort.Direction direction) {
+        return new MovieCursor(sortBy, direction, sortValueOf(movie, sortBy), movie.getId());
+    }
+
+    static MovieCursor decode(String token) {
+        try {
+            String raw = new String(Base64.getUrlDecoder().decode(token), StandardCharsets.UTF_8);
+            String[] parts = raw.split(SEPARATOR, -1);
+            if (parts.length != 4) {
+                throw new IllegalArgumentException("Invalid cursor");
+            }
+            String sortBy = parts[0];
+            validateSortField(sortBy);
+            Sort.Direction direction = Sort.Direction.fromString(parts[1]);
+            return new MovieCursor(sortBy, direction, decodeSortValue(sortBy, parts[2]), Long.valueOf(parts[3]));
+        } catch (IllegalArgumentException e) {
+            throw new IllegalArgumentException("Invalid cursor", e);
+        }
+    }
+
+    String encode() {
+        String value = sortValue == null ? "" : VALUE_PREFIX + sortValue;
+        String raw = String.join(SEPARATOR, sortBy, direction.name(), value, String.valueOf(id));
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(raw.getBytes(StandardCharsets.UTF_8));
+    }
+
+    Sort sort() {
+        Sort sort = Sort.by(direction, sortBy);
+        // El id desempata para que la clave de orden sea única
+        return "id".equals(sortBy) ? sort : sort.and(Sort.by(direction, "id"));
+    }
+
+    ScrollPosition position() {
+        if (id == null) {
+            return ScrollPosition.keyset();
+        }
+        Map<String, Object> keys = new LinkedHashMap<>();
+        if (!"id".equals(sortBy)) {
+            // Los campos ordenables son NOT NULL: no hay fila a continuación de una clave nula
+            if (sortValue == null) {
+                throw new IllegalArgumentException("Invalid cursor");
+            }
+            keys.put(sortBy, sortValue);
+        }
+        keys.put("id", id);
+        return ScrollPosition.forward(keys);
+    }
+
+    private static void validateSortField(String sortBy) {
+        if (!SORTABLE_FIELDS.contains(sortBy)) {
+            throw new IllegalArgumentException("sortBy must be one of " + SORTABLE_FIELDS);
+        }
+    }
+
+    private static Object sortValueOf(Movie movie, String sortBy) {
+        return switch (sortBy) {
+            case "title" -> movie.getTitle();
+            case "director" -> movie.getDirector();
+            case "studio" -> movie.getStudio();
+            case "releaseYear" -> movie.getReleaseYear();
+            default -> movie.getId();
+        };
+    }
+
+    private static Object decodeSortValue(String sortBy, String value) {
+        if (value.isEmpty()) {
+            return null;
+        }
+        if (!value.startsWith(VALUE_PREFIX)) {
+            throw new IllegalArgumentException("Invalid cursor");
+        }
+        return parseSortValue(sortBy, value.substring(VALUE_PREFIX.length()));
+    }
+
+    private static Object parseSortValue(String sortBy, String value) {
+        return switch (sortBy) {
+            case "releaseYear" -> Integer.valueOf(value);
+            case "id" -> Long.valueOf(value);
+            default -> value;
+        };
+    }
+}
@@ -0,0 +1,88 @@
+package com.maxi.movieapi.service.impl;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.maxi.movieapi.dto.MovieDto;
+import com.maxi.movieapi.service.MovieExportService;
+import com.maxi.movieapi.service.MovieService;
+import org.springframework.stereotype.Service;
+
+import java.io.BufferedOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+import java.util.Objects;
+import java.util.zip.GZIPOutputStream;
+
+/**
+ * Exportación del catálogo en NDJSON o CSV comprimido con gzip.
+ * Las filas se escriben a medida que se leen del cursor, a través de un buffer de tamaño fijo.
+ * En CSV el reparto se escribe como un arreglo JSON dentro de su campo, para que un nombre con cualquier carácter
+ * pueda leerse de vuelta sin ambigüedad.
+ */
+@Service
+public class MovieExportServiceImpl implements MovieExportService {
+
+    private static final int BUFFER_SIZE = 64 * 1024;
+
+    private static final String CSV_HEADER = "id,title,director,studio,releaseYear,movieCast,poster,posterUrl\n";
+
+    private final MovieService movieService;
+    private final ObjectMapper objectMapper;
+
+    public MovieExportServiceImpl(MovieService movieService, ObjectMapper objectMapper) {
+        this.movieService = movieService;
+        this.objectMapper = objectMapper;
+    }
+
+    @Override
+    public void exportMovies(OutputStream out, Format format, Long afterId) throws IOException {
+        GZIPOutputStream gzip = new GZIPOutputStream(out, BUFFER_SIZE);
+        OutputStream buffered = new BufferedOutputStream(gzip, BUFFER_SIZE);
+
+        if (format == Format.CSV) {
+            buffered.write(CSV_HEADER.getBytes(StandardCharsets.UTF_8));
+        }
+
+        try {
+            movieService.streamAllMovies(afterId, movie -> {
+                try {
+                    if (format == Format.CSV) {
+                        buffered.write(toCsv(movie).getBytes(StandardCharsets.UTF_8));
+                    } else {
+                        buffered.write(objectMapper.writeValueAsBytes(movie));
+                        buffered.write('\n');
+                    }
+                } catch (IOException e) {
+                    throw new UncheckedIOException(e);
+                }
+            });
+        } catch (UncheckedIOException e) {
+            throw e.getCause();
+        }
+
+        buffered.flush();
+        gzip.finish();
+    }
+
+    private String toCsv(MovieDto movie) throws IOException {
+        String cast = movie.getMovieCast() == null ? "" : objectMapper.writeValueAsString(movie.getMovieCast());
+        return String.join(",",
+                String.valueOf(movie.getId()),
+                csv(movie.getTitle()),
+                csv(movie.getDirector()),
+                csv(movie.getStudio()),
+                String.valueOf(movie.getReleaseYear()),
+                csv(cast),
+                csv(movie.getPoster()),
+                csv(movie.getPosterUrl())) + "\n";
+    }
+
+    private static String csv(String value) {
+        String text = Objects.toString(value, "");
+        if (text.indexOf(',') < 0 && text.indexOf('"') < 0 && text.indexOf('\n') < 0 && text.indexOf('\r') < 0) {
+            return text;
+        }
+        return '"' + text.replace("\"", "\"\"") + '"';
+    }
+}
@@ -0,0 +1,224 @@
+package com.maxi.movieapi.service.impl;
+
+import com.maxi.movieapi.dto.MovieDto;
+import com.maxi.movieapi.dto.MovieFacetsDto;
+import com.maxi.movieapi.service.MovieChangedEvent;
+import com.maxi.movieapi.service.MovieFacetService;
+import com.maxi.movieapi.service.MovieService;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+/**
+ * Facetas del catálogo mantenidas de forma incremental en memoria.
+ * Los conteos se actualizan con cada {@link MovieChangedEvent}, por lo que una consulta sin filtros no recorre datos.
+ * Para cada estudio, director y década se guardan además las películas que lo tienen: una consulta con filtros recorre
+ * solo las películas del filtro más selectivo, nunca el catálogo completo ni la base de datos.
+ * <p>
+ * Estudios y directores se agrupan por su clave normalizada (sin espacios en los extremos y en minúsculas), tanto al
+ * indexar como al consultar; en la respuesta se muestran con la grafía de la primera película que los agregó.
+ */
+@Service
+public class MovieFacetServiceImpl implements MovieFacetService {
+
+    // Primera década admitida (la primera película es de 1888) y cantidad de décadas hasta 2100
+    private static final int FIRST_DECADE = 1880;
+    private static final int DECADES = (2100 - FIRST_DECADE) / 10 + 1;
+
+    // Índice de las películas sin año o con un año fuera del rango: cuentan en el total, pero en ninguna década
+    private static final int NO_DECADE = -1;
+
+    // Facetas de una película, con estudio y director ya normalizados
+    private record Facets(String studio, String director, int decadeIndex) {
+    }
+
+    // Películas con un mismo valor de faceta; el tamaño del conjunto es el conteo
+    private static final class Facet {
+        private final String label;
+        private final Set<Long> movies = new HashSet<>();
+
+        private Facet(String label) {
+            this.label = label;
+        }
+    }
+
+    private final MovieService movieService;
+
+    private final Map<Long, Facets> facetsByMovie = new HashMap<>();
+    private final Map<String, Facet> studios = new HashMap<>();
+    private final Map<String, Facet> directors = new HashMap<>();
+    private final List<Set<Long>> moviesByDecade = new ArrayList<>(DECADES);
+    private final ReadWriteLock lock = new ReentrantReadWriteLock();
+
+    public MovieFacetServiceImpl(MovieService movieService) {
+        this.movieService = movieService;
+        for (int i = 0; i < DECADES; i++) {
+            moviesByDecade.add(new HashSet<>());
+        }
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void buildFacets() {
+        movieService.streamAllMovies(0L, this::put);
+    }
+
+    @TransactionalEventListener
+    public void onMovieChanged(MovieChangedEvent event) {
+        if (event.isDeleted()) {
+            lock.writeLock().lock();
+            try {
+                removeUnlocked(event.id());
+            } finally {
+                lock.writeLock().unlock();
+            }
+        } else {
+            put(event.movie());
+        }
+    }
+
+    @Override
+    public MovieFacetsDto getFacets(String studio, String director, Integer decade) {
+        lock.readLock().lock();
+        try {
+            if (studio == null && director == null && decade == null) {
+                return new MovieFacetsDto(facetsByMovie.size(), toMap(studios), toMap(directors), toMap(moviesByDecade));
+            }
+
+            // Conjunto de películas de cada filtro; un valor sin películas descarta la consulta
+            List<Set<Long>> filters = new ArrayList<>(3);
+            String studioKey = normalize(studio);
+            String directorKey = normalize(director);
+            int decadeFilter = decade == null ? NO_DECADE : decadeIndex(decade);
+            if (studio != null) {
+                Facet facet = studios.get(studioKey);
+                filters.add(facet == null ? Set.of() : facet.movies);
+            }
+            if (director != null) {
+                Facet facet = directors.get(directorKey);
+                filters.add(facet == null ? Set.of() : facet.movies);
+            }
+            if (decade != null) {
+                // Una década fuera del rango no contiene películas
+                filters.add(decadeFilter == NO_DECADE ? Set.of() : moviesByDecade.get(decadeFilter));
+            }
+            Set<Long> candidates = filters.stream().min(Comparator.comparingInt(Set::size)).orElseThrow();
+            if (candidates.isEmpty()) {
+                return new MovieFacetsDto(0, Map.of(), Map.of(), Map.of());
+            }
+
+            Map<String, Integer> studioCounts = new TreeMap<>();
+            Map<String, Integer> directorCounts = new TreeMap<>();
+            int[] decadeCounts = new int[DECADES];
+            int total = 0;
+
+            for (Long id : candidates) {
+                Facets facets = facetsByMovie.get(id);
+                if ((studio != null && !studioKey.equals(facets.studio()))
+                        || (director != null && !directorKey.equals(facets.director()))
+                        || (decade != null && decadeFilter != facets.decadeIndex())) {
+                    continue;
+                }
+                total++;
+                studioCounts.merge(studios.get(facets.studio()).label, 1, Integer::sum);
+                directorCounts.merge(directors.get(facets.director()).label, 1, Integer::sum);
+                if (facets.decadeIndex() != NO_DECADE) {
+                    decadeCounts[facets.decadeIndex()]++;
+                }
+            }
+
+            return new MovieFacetsDto(total, studioCounts, directorCounts, toMap(decadeCounts));
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    private void put(MovieDto movie) {
+        Facets facets = new Facets(normalize(movie.getStudio()), normalize(movie.getDirector()),
+                decadeIndex(movie.getReleaseYear()));
+
+        lock.writeLock().lock();
+        try {
+            removeUnlocked(movie.getId());
+            facetsByMovie.put(movie.getId(), facets);
+            studios.computeIfAbsent(facets.studio(), k -> new Facet(label(movie.getStudio()))).movies.add(movie.getId());
+            directors.computeIfAbsent(facets.director(), k -> new Facet(label(movie.getDirector()))).movies.add(movie.getId());
+            if (facets.decadeIndex() != NO_DECADE) {
+                moviesByDecade.get(facets.decadeIndex()).add(movie.getId());
+            }
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    private void removeUnlocked(Long id) {
+        Facets previous = facetsByMovie.remove(id);
+        if (previous == null) {
+            return;
+        }
+        remove(studios, previous.studio(), id);
+        remove(directors, previous.director(), id);
+        if (previous.decadeIndex() != NO_DECADE) {
+            moviesByDecade.get(previous.decadeIndex()).remove(id);
+        }
+    }
+
+    private static void remove(Map<String, Facet> facets, String key, Long id) {
+        Facet facet = facets.get(key);
+        if (facet != null && facet.movies.remove(id) && facet.movies.isEmpty()) {
+            facets.remove(key);
+        }
+    }
+
+    private static String normalize(String value) {
+        return value == null ? null : value.strip().toLowerCase(Locale.ROOT);
+    }
+
+    private static String label(String value) {
+        return value == null ? null : value.strip();
+    }
+
+    private static int decadeIndex(Integer year) {
+        if (year == null || year < FIRST_DECADE) {
+            return NO_DECADE;
+        }
+        int index = (year - FIRST_DECADE) / 10;
+        return index < DECADES ? index : NO_DECADE;
+    }
+
+    private static Map<String, Integer> toMap(Map<String, Facet> facets) {
+        Map<String, Integer> result = new TreeMap<>();
+        facets.values().forEach(facet -> result.put(facet.label, facet.movies.size()));
+        return result;
+    }
+
+    private static Map<Integer, Integer> toMap(List<Set<Long>> moviesByDecade) {
+        int[] counts = new int[DECADES];
+        for (int i = 0; i < DECADES; i++) {
+            counts[i] = moviesByDecade.get(i).size();
+        }
+        return toMap(counts);
+    }
+
+    private static Map<Integer, Integer> toMap(int[] counts) {
+        Map<Integer, Integer> result = new TreeMap<>();
+        for (int i = 0; i < counts.length; i++) {
+            if (counts[i] > 0) {
+                result.put(FIRST_DECADE + i * 10, counts[i]);
+            }
+        }
+        return result;
+    }
+}
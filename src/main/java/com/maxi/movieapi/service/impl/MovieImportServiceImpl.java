@@ -0,0 +1,193 @@
+package com.maxi.movieapi.service.impl;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.maxi.movieapi.dto.MovieDto;
+import com.maxi.movieapi.dto.MovieImportResultDto;
+import com.maxi.movieapi.entities.Movie;
+import com.maxi.movieapi.service.MovieChangedEvent;
+import com.maxi.movieapi.service.MovieImportService;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.PersistenceContext;
+import jakarta.validation.ConstraintViolation;
+import jakarta.validation.Validator;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+import java.util.stream.Collectors;
+
+/**
+ * Importación masiva de películas con inserciones por lotes JDBC.
+ * Cada bloque de filas se confirma en su propia transacción; si un bloque falla,
+ * se reintenta fila por fila para aislar las filas inválidas. Cada intento construye entidades nuevas a partir
+ * de las filas leídas, sin reutilizar las que quedaron en el contexto de persistencia del intento fallido.
+ */
+@Service
+public class MovieImportServiceImpl implements MovieImportService {
+
+    private static final Logger log = LoggerFactory.getLogger(MovieImportServiceImpl.class);
+
+    // Cantidad máxima de errores que se devuelven en la respuesta
+    private static final int MAX_REPORTED_ERRORS = 1000;
+
+    private record Row(long line, MovieDto movie) {
+    }
+
+    private static final class Progress {
+        private int imported;
+        private int failed;
+        private final List<MovieImportResultDto.RowError> errors = new ArrayList<>();
+
+        private void reject(long line, String message) {
+            failed++;
+            if (errors.size() < MAX_REPORTED_ERRORS) {
+                errors.add(new MovieImportResultDto.RowError(line, message));
+            }
+        }
+    }
+
+    private final ObjectMapper objectMapper;
+    private final Validator validator;
+    private final TransactionTemplate transactionTemplate;
+    private final ApplicationEventPublisher eventPublisher;
+    private final MovieMapper movieMapper;
+
+    @PersistenceContext
+    private EntityManager entityManager;
+
+    @Value("${movies.import.chunk-size:500}")
+    private int chunkSize;
+
+    public MovieImportServiceImpl(ObjectMapper objectMapper, Validator validator, PlatformTransactionManager transactionManager,
+                                  ApplicationEventPublisher eventPublisher, MovieMapper movieMapper) {
+        this.objectMapper = objectMapper;
+        this.validator = validator;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.eventPublisher = eventPublisher;
+        this.movieMapper = movieMapper;
+    }
+
+    @Override
+    public MovieImportResultDto importMovies(InputStream ndjson) throws IOException {
+        long start = System.nanoTime();
+        Progress progress = new Progress();
+        List<Row> chunk = new ArrayList<>(chunkSize);
+
+        try (BufferedReader reader = new BufferedReader(new InputStreamReader(ndjson, StandardCharsets.UTF_8))) {
+            String line;
+            long lineNumber = 0;
+            while ((line = reader.readLine()) != null) {
+                lineNumber++;
+                if (line.isBlank()) {
+                    continue;
+                }
+
+                try {
+                    MovieDto movie = objectMapper.readValue(line, MovieDto.class);
+                    String error = validate(toMovie(movie));
+                    if (error == null) {
+                        chunk.add(new Row(lineNumber, movie));
+                    } else {
+                        progress.reject(lineNumber, error);
+                    }
+                } catch (JsonProcessingException e) {
+                    progress.reject(lineNumber, "Invalid JSON: " + e.getOriginalMessage());
+                }
+
+                if (chunk.size() == chunkSize) {
+                    persistChunk(chunk, progress);
+                }
+            }
+        }
+        persistChunk(chunk, progress);
+
+        long elapsedMillis = Math.max(1, (System.nanoTime() - start) / 1_000_000);
+        double rowsPerSecond = (progress.imported + progress.failed) * 1000.0 / elapsedMillis;
+        log.info("Imported {} movies ({} rejected) in {} ms, {} rows/s",
+                progress.imported, progress.failed, elapsedMillis, Math.round(rowsPerSecond));
+
+        return new MovieImportResultDto(progress.imported, progress.failed, progress.errors, elapsedMillis, rowsPerSecond);
+    }
+
+    // Inserta el bloque en una sola transacción; si falla, reintenta fila por fila para aislar las filas inválidas
+    private void persistChunk(List<Row> chunk, Progress progress) {
+        if (chunk.isEmpty()) {
+            return;
+        }
+
+        try {
+            insert(chunk);
+            progress.imported += chunk.size();
+        } catch (RuntimeException chunkError) {
+            for (Row row : chunk) {
+                try {
+                    insert(List.of(row));
+                    progress.imported++;
+                } catch (RuntimeException rowError) {
+                    progress.reject(row.line(), rootMessage(rowError));
+                }
+            }
+        }
+        chunk.clear();
+    }
+
+    // Las entidades se crean dentro de la transacción: si falla, se descartan junto con su contexto de persistencia
+    private void insert(List<Row> rows) {
+        transactionTemplate.executeWithoutResult(status -> {
+            List<Movie> movies = rows.stream().map(row -> toMovie(row.movie())).toList();
+            movies.forEach(entityManager::persist);
+            entityManager.flush();
+            movies.forEach(movie -> {
+                MovieDto dto = movieMapper.toDto(movie);
+                eventPublisher.publishEvent(new MovieChangedEvent(dto.getId(), dto));
+            });
+            entityManager.clear();
+        });
+    }
+
+    private Movie toMovie(MovieDto dto) {
+        return Movie.builder()
+                .title(dto.getTitle())
+                .director(dto.getDirector())
+                .studio(dto.getStudio())
+                .movieCast(dto.getMovieCast())
+                .releaseYear(dto.getReleaseYear())
+                .poster(dto.getPoster())
+                .build();
+    }
+
+    private String validate(Movie movie) {
+        Set<ConstraintViolation<Movie>> violations = validator.validate(movie);
+        if (movie.getPoster() == null || movie.getPoster().isBlank()) {
+            return "Poster is mandatory";
+        }
+        if (violations.isEmpty()) {
+            return null;
+        }
+        return violations.stream()
+                .map(v -> v.getPropertyPath() + ": " + v.getMessage())
+                .sorted()
+                .collect(Collectors.joining(", "));
+    }
+
+    private static String rootMessage(Throwable e) {
+        Throwable root = e;
+        while (root.getCause() != null) {
+            root = root.getCause();
+        }
+        return root.getMessage();
+    }
+}
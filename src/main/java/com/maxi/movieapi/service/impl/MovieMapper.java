@@ -0,0 +1,58 @@
+package com.maxi.movieapi.service.impl;
+
+import com.maxi.movieapi.dto.MovieDto;
+import com.maxi.movieapi.dto.PosterMetadataDto;
+import com.maxi.movieapi.entities.Movie;
+import com.maxi.movieapi.entities.PosterMetadata;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.util.Set;
+
+/**
+ * Convierte entidades {@link Movie} en {@link MovieDto}, construyendo la URL pública del póster,
+ * y los metadatos del póster entre su DTO y su forma persistida.
+ */
+@Component
+public class MovieMapper {
+
+    @Value("${base.url}")
+    private String baseUrl;
+
+    public MovieDto toDto(Movie movie) {
+        return new MovieDto(
+                movie.getId(),
+                movie.getTitle(),
+                movie.getDirector(),
+                movie.getStudio(),
+                movie.getMovieCast() == null ? null : Set.copyOf(movie.getMovieCast()),
+                movie.getReleaseYear(),
+                movie.getPoster(),
+                baseUrl + "/file/" + movie.getPoster(),
+                toDto(movie.getPosterMetadata()),
+                movie.getVersion(),
+                movie.getLastModified()
+        );
+    }
+
+    public PosterMetadataDto toDto(PosterMetadata metadata) {
+        if (metadata == null) {
+            return null;
+        }
+        return new PosterMetadataDto(metadata.getWidth(), metadata.getHeight(), metadata.getMimeType(),
+                metadata.getSize(), metadata.getPlaceholder());
+    }
+
+    public PosterMetadata toEntity(PosterMetadataDto metadata) {
+        if (metadata == null) {
+            return null;
+        }
+        return PosterMetadata.builder()
+                .width(metadata.width())
+                .height(metadata.height())
+                .mimeType(metadata.mimeType())
+                .size(metadata.size())
+                .placeholder(metadata.placeholder())
+                .build();
+    }
+}
@@ -0,0 +1,175 @@
+package com.maxi.movieapi.service.impl;
+
+import com.maxi.movieapi.dto.MovieDto;
+import com.maxi.movieapi.service.MovieChangedEvent;
+import com.maxi.movieapi.service.MovieSearchService;
+import com.maxi.movieapi.service.MovieService;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.text.Normalizer;
+import java.util.*;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.regex.Pattern;
+
+/**
+ * Búsqueda de texto completo respaldada por un índice invertido en memoria.
+ * El índice se construye al iniciar la aplicación y se mantiene al día con cada {@link MovieChangedEvent}.
+ * Solo guarda los términos y los ids: las películas encontradas se resuelven con {@link MovieService#getMovieById},
+ * que las sirve desde la caché, para no mantener una segunda copia del catálogo en el heap.
+ */
+@Service
+public class MovieSearchServiceImpl implements MovieSearchService {
+
+    // Peso de cada campo al puntuar una coincidencia
+    private static final float TITLE_WEIGHT = 3.0f;
+    private static final float DIRECTOR_WEIGHT = 2.0f;
+    private static final float CAST_WEIGHT = 1.5f;
+    private static final float STUDIO_WEIGHT = 1.0f;
+
+    private static final Pattern DIACRITICS = Pattern.compile("\\p{M}+");
+    private static final Pattern SEPARATORS = Pattern.compile("[^\\p{L}\\p{N}]+");
+
+    private final MovieService movieService;
+
+    // término -> (id de película -> peso del término en la película)
+    private final NavigableMap<String, Map<Long, Float>> postings = new TreeMap<>();
+    private final Map<Long, Set<String>> documentTerms = new HashMap<>();
+    private final ReadWriteLock lock = new ReentrantReadWriteLock();
+
+    public MovieSearchServiceImpl(MovieService movieService) {
+        this.movieService = movieService;
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void buildIndex() {
+        movieService.streamAllMovies(0L, this::index);
+    }
+
+    @TransactionalEventListener
+    public void onMovieChanged(MovieChangedEvent event) {
+        if (event.isDeleted()) {
+            remove(event.id());
+        } else {
+            index(event.movie());
+        }
+    }
+
+    @Override
+    public List<MovieDto> searchMovies(String query, int limit) {
+        if (limit <= 0) {
+            throw new IllegalArgumentException("Limit must be > 0");
+        }
+
+        List<String> terms = tokenize(query);
+        if (terms.isEmpty()) {
+            return List.of();
+        }
+
+        List<Long> ids;
+        lock.readLock().lock();
+        try {
+            int documentCount = documentTerms.size();
+            Map<Long, Float> scores = new HashMap<>();
+            Map<Long, Integer> matchedTerms = new HashMap<>();
+
+            for (int i = 0; i < terms.size(); i++) {
+                String term = terms.get(i);
+                // El último término se busca como prefijo para permitir búsquedas mientras se escribe
+                Map<String, Map<Long, Float>> matches = i == terms.size() - 1
+                        ? postings.subMap(term, true, term + Character.MAX_VALUE, false)
+                        : postings.containsKey(term) ? Map.of(term, postings.get(term)) : Map.of();
+
+                Set<Long> matchedForTerm = new HashSet<>();
+                for (Map<Long, Float> posting : matches.values()) {
+                    float idf = (float) Math.log(1 + (double) documentCount / posting.size());
+                    posting.forEach((id, weight) -> {
+                        scores.merge(id, weight * idf, Float::sum);
+                        matchedForTerm.add(id);
+                    });
+                }
+                matchedForTerm.forEach(id -> matchedTerms.merge(id, 1, Integer::sum));
+            }
+
+            // Se favorecen las películas que coinciden con más términos de la consulta; los empates se ordenan por id
+            ids = scores.entrySet().stream()
+                    .sorted(Comparator.<Map.Entry<Long, Float>>comparingDouble(
+                                    e -> -e.getValue() * matchedTerms.get(e.getKey()) / terms.size())
+                            .thenComparing(Map.Entry::getKey))
+                    .limit(limit)
+                    .map(Map.Entry::getKey)
+                    .toList();
+        } finally {
+            lock.readLock().unlock();
+        }
+
+        // Fuera del bloqueo: una película eliminada entre la búsqueda y la lectura se omite
+        return ids.stream()
+                .map(movieService::getMovieById)
+                .flatMap(Optional::stream)
+                .toList();
+    }
+
+    private void index(MovieDto movie) {
+        Map<String, Float> weights = new HashMap<>();
+        addTerms(weights, movie.getTitle(), TITLE_WEIGHT);
+        addTerms(weights, movie.getDirector(), DIRECTOR_WEIGHT);
+        addTerms(weights, movie.getStudio(), STUDIO_WEIGHT);
+        if (movie.getMovieCast() != null) {
+            movie.getMovieCast().forEach(actor -> addTerms(weights, actor, CAST_WEIGHT));
+        }
+
+        lock.writeLock().lock();
+        try {
+            removeUnlocked(movie.getId());
+            weights.forEach((term, weight) ->
+                    postings.computeIfAbsent(term, t -> new HashMap<>()).put(movie.getId(), weight));
+            documentTerms.put(movie.getId(), weights.keySet());
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    private void remove(Long id) {
+        lock.writeLock().lock();
+        try {
+            removeUnlocked(id);
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    private void removeUnlocked(Long id) {
+        Set<String> terms = documentTerms.remove(id);
+        if (terms == null) {
+            return;
+        }
+        for (String term : terms) {
+            Map<Long, Float> posting = postings.get(term);
+            posting.remove(id);
+            if (posting.isEmpty()) {
+                postings.remove(term);
+            }
+        }
+    }
+
+    private static void addTerms(Map<String, Float> weights, String text, float weight) {
+        for (String term : tokenize(text)) {
+            weights.merge(term, weight, Float::sum);
+        }
+    }
+
+    // Normaliza el texto: sin acentos, en minúsculas y separado en palabras
+    static List<String> tokenize(String text) {
+        if (text == null || text.isBlank()) {
+            return List.of();
+        }
+        String folded = DIACRITICS.matcher(Normalizer.normalize(text, Normalizer.Form.NFD)).replaceAll("");
+        return Arrays.stream(SEPARATORS.split(folded.toLowerCase(Locale.ROOT)))
+                .filter(term -> !term.isEmpty())
+                .toList();
+    }
+}
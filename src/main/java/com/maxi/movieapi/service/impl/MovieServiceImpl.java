@@ -4,52 +4,101 @@ import com.maxi.movieapi.dto.MovieDto;
 import com.maxi.movieapi.dto.MoviePageResponseDto;
 import com.maxi.movieapi.entities.Movie;
 import com.maxi.movieapi.repository.MovieRepository;
+import com.maxi.movieapi.service.FileService;
+import com.maxi.movieapi.service.MovieChangedEvent;
 import com.maxi.movieapi.service.MovieService;
-import org.springframework.beans.factory.annotation.Value;
+import com.maxi.movieapi.service.UploadedPoster;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.PersistenceContext;
+import org.springframework.cache.Cache;
+import org.springframework.cache.CacheManager;
+import org.springframework.cache.annotation.Cacheable;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.data.domain.Limit;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.PageRequest;
 import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
 import org.springframework.data.domain.Sort;
+import org.springframework.data.domain.Window;
+import org.springframework.scheduling.annotation.Scheduled;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.event.TransactionalEventListener;
 import org.springframework.web.multipart.MultipartFile;
 
 import java.io.IOException;
+import java.util.ArrayList;
 import java.util.List;
 import java.util.Optional;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Consumer;
+import java.util.stream.Stream;
 
 @Service
 public class MovieServiceImpl implements MovieService {
 
+    // Caché de lectura de MovieDto por id (configurado en spring.cache.*)
+    public static final String MOVIES_CACHE = "movies";
+
+    // Cantidad de películas que se mapean y desacoplan juntas al recorrer el catálogo completo
+    private static final int STREAM_CHUNK_SIZE = 100;
+
     private final MovieRepository movieRepository;
-    private final FileServiceImpl fileService;
+    private final FileService fileService;
+    private final ApplicationEventPublisher eventPublisher;
+    private final MovieMapper movieMapper;
+    private final CacheManager cacheManager;
+
+    @PersistenceContext
+    private EntityManager entityManager;
 
-    @Value("${project.poster}")
-    private String path;
+    // Versión global del catálogo; parte de la hora de arranque para no repetir valores entre reinicios
+    private final AtomicLong catalogVersion = new AtomicLong(System.currentTimeMillis());
 
-    @Value("${base.url}")
-    private String baseUrl;
+    // Conteo aproximado de películas para el modo slice; -1 hasta el primer refresco
+    private final AtomicLong approximateCount = new AtomicLong(-1);
 
-    public MovieServiceImpl(MovieRepository movieRepository, FileServiceImpl fileService) {
+    public MovieServiceImpl(MovieRepository movieRepository, FileService fileService,
+                            ApplicationEventPublisher eventPublisher, MovieMapper movieMapper,
+                            CacheManager cacheManager) {
         this.movieRepository = movieRepository;
         this.fileService = fileService;
+        this.eventPublisher = eventPublisher;
+        this.movieMapper = movieMapper;
+        this.cacheManager = cacheManager;
     }
 
     @Transactional(readOnly = true)
     @Override
     public List<MovieDto> getAllMovies() {
-        return movieRepository.findAll().stream().map(movie -> MovieDto.builder().
-                id(movie.getId()).
-                title(movie.getTitle()).
-                director(movie.getDirector()).
-                studio(movie.getStudio()).
-                movieCast(movie.getMovieCast()).
-                releaseYear(movie.getReleaseYear()).
-                poster(movie.getPoster()).
-                posterUrl(baseUrl + "/file/" + movie.getPoster()).
-                build()).toList();
+        return movieRepository.findAll().stream().map(movieMapper::toDto).toList();
+    }
+
+    @Transactional(readOnly = true)
+    @Override
+    public void streamAllMovies(Long afterId, Consumer<MovieDto> consumer) {
+        List<Movie> chunk = new ArrayList<>(STREAM_CHUNK_SIZE);
+        try (Stream<Movie> movies = movieRepository.streamAll(afterId)) {
+            movies.forEach(movie -> {
+                chunk.add(movie);
+                if (chunk.size() == STREAM_CHUNK_SIZE) {
+                    flushChunk(chunk, consumer);
+                }
+            });
+        }
+        flushChunk(chunk, consumer);
+    }
+
+    // Mapea un bloque de películas (el reparto se carga por lotes en una sola consulta) y lo desacopla de la sesión
+    private void flushChunk(List<Movie> chunk, Consumer<MovieDto> consumer) {
+        List<MovieDto> dtos = chunk.stream().map(movieMapper::toDto).toList();
+        entityManager.clear();
+        chunk.clear();
+        dtos.forEach(consumer);
     }
 
+    @Transactional(readOnly = true)
     @Override
     public MoviePageResponseDto getAllMoviesByPage(int page, int size) {
         // Validación de parámetros
@@ -64,31 +113,14 @@ public class MovieServiceImpl implements MovieService {
         Page<Movie> moviePage = movieRepository.findAll(pageable);
         List<Movie> movies = moviePage.getContent();
 
-        // Transformación de entidades a DTOs
-        List<MovieDto> movieDtos = movies.stream()
-                .map(movie -> new MovieDto(
-                        movie.getId(),
-                        movie.getTitle(),
-                        movie.getDirector(),
-                        movie.getStudio(),
-                        movie.getMovieCast(),
-                        movie.getReleaseYear(),
-                        movie.getPoster(),
-                        baseUrl + "/file/" + movie.getPoster()
-                ))
-                .toList();
+        // Transformación de entidades a DTOs (el reparto de toda la página se carga en una sola consulta)
+        List<MovieDto> movieDtos = movies.stream().map(movieMapper::toDto).toList();
 
         // Creación de la respuesta
-        return new MoviePageResponseDto(
-                movieDtos,
-                moviePage.getTotalPages(),
-                moviePage.getTotalElements(),
-                moviePage.getSize(),
-                moviePage.getNumber(),
-                moviePage.isLast()
-        );
+        return toPageResponse(moviePage, movieDtos);
     }
 
+    @Transactional(readOnly = true)
     @Override
     public MoviePageResponseDto getAllMoviesByPageAndSorting(int page, int size, String sortBy, String order) {
         // 1. Validar parámetros
@@ -107,51 +139,96 @@ public class MovieServiceImpl implements MovieService {
         Page<Movie> moviePage = movieRepository.findAll(pageable);
         List<Movie> movies = moviePage.getContent();
 
-        // 5. Mapear a DTOs (sin cambios)
-        List<MovieDto> movieDtos = movies.stream()
-                .map(movie -> new MovieDto(
-                        movie.getId(),
-                        movie.getTitle(),
-                        movie.getDirector(),
-                        movie.getStudio(),
-                        movie.getMovieCast(),
-                        movie.getReleaseYear(),
-                        movie.getPoster(),
-                        baseUrl + "/file/" + movie.getPoster()
-                ))
-                .toList();
+        // 5. Mapear a DTOs (el reparto de toda la página se carga en una sola consulta)
+        List<MovieDto> movieDtos = movies.stream().map(movieMapper::toDto).toList();
 
         // 6. Retornar respuesta
-        return new MoviePageResponseDto(
-                movieDtos,
-                moviePage.getTotalPages(),
-                moviePage.getTotalElements(),
-                moviePage.getSize(),
-                moviePage.getNumber(),
-                moviePage.isLast()
-        );
+        return toPageResponse(moviePage, movieDtos);
     }
 
     @Transactional(readOnly = true)
     @Override
-    public Optional<MovieDto> getMovieById(Long id) {
-        Optional<Movie> movieOptional = movieRepository.findById(id);
-        if (movieOptional.isPresent()){
-            Movie movie = movieOptional.get();
-            String posterUrl = baseUrl + "/file/" + movie.getPoster();
-            return Optional.of(new MovieDto(
-                    movie.getId(),
-                    movie.getTitle(),
-                    movie.getDirector(),
-                    movie.getStudio(),
-                    movie.getMovieCast(),
-                    movie.getReleaseYear(),
-                    movie.getPoster(),
-                    posterUrl
-            ));
-        } else {
-            return Optional.empty();
+    public MoviePageResponseDto getAllMoviesBySlice(int page, int size) {
+        if (page < 0 || size <= 0) {
+            throw new IllegalArgumentException("Page must be >= 0 and size must be > 0");
+        }
+
+        return toSliceResponse(movieRepository.findAllBy(PageRequest.of(page, size)));
+    }
+
+    @Transactional(readOnly = true)
+    @Override
+    public MoviePageResponseDto getAllMoviesBySliceAndSorting(int page, int size, String sortBy, String order) {
+        if (page < 0 || size <= 0) {
+            throw new IllegalArgumentException("Page must be >= 0 and size must be > 0");
         }
+
+        Sort.Direction direction = order.equalsIgnoreCase("ASC") ? Sort.Direction.ASC : Sort.Direction.DESC;
+        Pageable pageable = PageRequest.of(page, size, Sort.by(direction, sortBy));
+
+        return toSliceResponse(movieRepository.findAllBy(pageable));
+    }
+
+    /**
+     * Refresca periódicamente el conteo aproximado de películas que se informa en el modo slice.
+     * Si el conteo cambia, cambia también la versión del catálogo: los totales forman parte de las respuestas
+     * validadas con ella, y un 304 no debe conservar totales anteriores.
+     */
+    @Scheduled(fixedDelayString = "${movies.count.refresh-interval:60000}")
+    public void refreshApproximateCount() {
+        long count = movieRepository.count();
+        if (approximateCount.getAndSet(count) != count) {
+            catalogVersion.incrementAndGet();
+        }
+    }
+
+    @Override
+    public long getCatalogVersion() {
+        return catalogVersion.get();
+    }
+
+    /**
+     * Incrementa la versión del catálogo y quita la película del caché una vez confirmado el cambio; una escritura
+     * revertida no cambia la versión. Desalojar antes de confirmar permitiría que una lectura concurrente vuelva
+     * a guardar la fila anterior hasta que venza la entrada.
+     */
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onMovieChanged(MovieChangedEvent event) {
+        catalogVersion.incrementAndGet();
+        Cache movies = cacheManager.getCache(MOVIES_CACHE);
+        if (movies != null) {
+            movies.evict(event.id());
+        }
+    }
+
+    @Transactional(readOnly = true)
+    @Override
+    public MoviePageResponseDto getMoviesByCursor(String cursor, int size, String sortBy, String order) {
+        if (size <= 0) {
+            throw new IllegalArgumentException("Size must be > 0");
+        }
+
+        MovieCursor current = cursor == null || cursor.isBlank()
+                ? MovieCursor.first(sortBy, order.equalsIgnoreCase("ASC") ? Sort.Direction.ASC : Sort.Direction.DESC)
+                : MovieCursor.decode(cursor);
+
+        Window<Movie> window = movieRepository.findAllBy(current.position(), current.sort(), Limit.of(size));
+        List<MovieDto> movieDtos = window.stream().map(movieMapper::toDto).toList();
+
+        String nextCursor = null;
+        if (window.hasNext() && !window.isEmpty()) {
+            Movie last = window.getContent().get(window.size() - 1);
+            nextCursor = MovieCursor.after(last, current.sortBy(), current.direction()).encode();
+        }
+
+        return new MoviePageResponseDto(movieDtos, 0, size, -1, -1, nextCursor == null, nextCursor);
+    }
+
+    @Cacheable(cacheNames = MOVIES_CACHE, key = "#id", unless = "#result == null")
+    @Transactional(readOnly = true)
+    @Override
+    public Optional<MovieDto> getMovieById(Long id) {
+        return movieRepository.findById(id).map(movieMapper::toDto);
     }
 
     @Transactional
@@ -159,32 +236,22 @@ public class MovieServiceImpl implements MovieService {
     public Optional<MovieDto> addMovie(MovieDto movieDto, MultipartFile file) throws IOException {
 
 
-        String uploadFileName = fileService.uploadFile(path, file);
-        movieDto.setPoster(uploadFileName);
+        UploadedPoster uploadedPoster = fileService.uploadFile(file);
+        movieDto.setPoster(uploadedPoster.fileName());
 
-        Movie movie = new Movie(
-                null,
-                movieDto.getTitle(),
-                movieDto.getDirector(),
-                movieDto.getStudio(),
-                movieDto.getMovieCast(),
-                movieDto.getReleaseYear(),
-                movieDto.getPoster()
-        );
-        Movie savedMovie = movieRepository.save(movie);
-
-        String posterUrl = baseUrl + "/file/" + uploadFileName;
-
-        MovieDto response = new MovieDto(
-                savedMovie.getId(),
-                savedMovie.getTitle(),
-                savedMovie.getDirector(),
-                savedMovie.getStudio(),
-                savedMovie.getMovieCast(),
-                savedMovie.getReleaseYear(),
-                savedMovie.getPoster(),
-                posterUrl
-        );
+        Movie movie = Movie.builder()
+                .title(movieDto.getTitle())
+                .director(movieDto.getDirector())
+                .studio(movieDto.getStudio())
+                .movieCast(movieDto.getMovieCast())
+                .releaseYear(movieDto.getReleaseYear())
+                .poster(movieDto.getPoster())
+                .posterMetadata(movieMapper.toEntity(uploadedPoster.metadata()))
+                .build();
+        Movie savedMovie = movieRepository.saveAndFlush(movie);
+
+        MovieDto response = movieMapper.toDto(savedMovie);
+        eventPublisher.publishEvent(new MovieChangedEvent(response.getId(), response));
 
         return Optional.of(response);
     }
@@ -199,8 +266,8 @@ public class MovieServiceImpl implements MovieService {
         }
 
         Movie movie = movieOptional.get();
-        String uploadFileName = fileService.uploadFile(path, file);
-        movieDto.setPoster(uploadFileName);
+        UploadedPoster uploadedPoster = fileService.uploadFile(file);
+        movieDto.setPoster(uploadedPoster.fileName());
 
         movie.setTitle(movieDto.getTitle());
         movie.setDirector(movieDto.getDirector());
@@ -208,32 +275,54 @@ public class MovieServiceImpl implements MovieService {
         movie.setMovieCast(movieDto.getMovieCast());
         movie.setReleaseYear(movieDto.getReleaseYear());
         movie.setPoster(movieDto.getPoster());
+        movie.setPosterMetadata(movieMapper.toEntity(uploadedPoster.metadata()));
 
-        Movie savedMovie = movieRepository.save(movie);
+        // Se sincroniza para que la respuesta (y su ETag) lleve la versión ya incrementada
+        Movie savedMovie = movieRepository.saveAndFlush(movie);
 
-        String posterUrl = baseUrl + "/file/" + uploadFileName;
+        MovieDto response = movieMapper.toDto(savedMovie);
+        eventPublisher.publishEvent(new MovieChangedEvent(response.getId(), response));
 
-        return Optional.of(new MovieDto(
-                savedMovie.getId(),
-                savedMovie.getTitle(),
-                savedMovie.getDirector(),
-                savedMovie.getStudio(),
-                savedMovie.getMovieCast(),
-                savedMovie.getReleaseYear(),
-                savedMovie.getPoster(),
-                posterUrl
-        ));
+        return Optional.of(response);
     }
 
     @Transactional
     @Override
-    public void deleteMovie(Long id) throws IOException {
+    public void deleteMovie(Long id) {
         Movie movie = movieRepository.findById(id)
                 .orElseThrow(() -> new RuntimeException("Movie not found with id: " + id)); // O una excepción personalizada
-        fileService.deleteFile(path, movie.getPoster());
+        // El póster no se elimina aquí: puede estar compartido con otras películas o reutilizarse por una subida
+        // concurrente del mismo contenido. PosterGarbageCollector, si está activo, lo elimina cuando queda sin referencias.
         movieRepository.delete(movie); // También puedes usar deleteById(id) aquí
+        eventPublisher.publishEvent(new MovieChangedEvent(id, null));
     }
 
+    private MoviePageResponseDto toPageResponse(Page<Movie> moviePage, List<MovieDto> movieDtos) {
+        return new MoviePageResponseDto(
+                movieDtos,
+                moviePage.getNumber(),
+                moviePage.getSize(),
+                (int) moviePage.getTotalElements(),
+                moviePage.getTotalPages(),
+                moviePage.isLast(),
+                null
+        );
+    }
+
+    private MoviePageResponseDto toSliceResponse(Slice<Movie> movieSlice) {
+        List<MovieDto> movieDtos = movieSlice.getContent().stream().map(movieMapper::toDto).toList();
 
+        long total = approximateCount.get();
+        int totalPages = total < 0 ? -1 : (int) ((total + movieSlice.getSize() - 1) / movieSlice.getSize());
 
+        return new MoviePageResponseDto(
+                movieDtos,
+                movieSlice.getNumber(),
+                movieSlice.getSize(),
+                (int) total,
+                totalPages,
+                movieSlice.isLast(),
+                null
+        );
+    }
 }
@@ -0,0 +1,158 @@
+package com.maxi.movieapi.service.impl;
+
+import com.maxi.movieapi.service.storage.PosterStorage;
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.WritableByteChannel;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Caché LRU de pósters fuera del heap: el contenido de cada archivo se guarda en un {@link ByteBuffer} directo.
+ * Está acotado por la cantidad total de bytes; los archivos más grandes que el máximo por entrada no se guardan.
+ * Expone métricas de aciertos, fallos, desalojos y bytes utilizados.
+ */
+@Component
+public class PosterCache {
+
+    private final PosterStorage posterStorage;
+    private final long maxBytes;
+    private final long maxEntryBytes;
+
+    // Orden de acceso: el primer elemento es el menos usado recientemente
+    private final LinkedHashMap<String, ByteBuffer> entries = new LinkedHashMap<>(16, 0.75f, true);
+    private long usedBytes;
+
+    private final AtomicLong hits = new AtomicLong();
+    private final AtomicLong misses = new AtomicLong();
+    private final AtomicLong evictions = new AtomicLong();
+
+    public PosterCache(PosterStorage posterStorage,
+                       @Value("${posters.cache.max-bytes:67108864}") long maxBytes,
+                       @Value("${posters.cache.max-entry-bytes:2097152}") long maxEntryBytes,
+                       MeterRegistry meterRegistry) {
+        this.posterStorage = posterStorage;
+        this.maxBytes = maxBytes;
+        this.maxEntryBytes = maxEntryBytes;
+
+        FunctionCounter.builder("posters.cache.hits", hits, AtomicLong::get).register(meterRegistry);
+        FunctionCounter.builder("posters.cache.misses", misses, AtomicLong::get).register(meterRegistry);
+        FunctionCounter.builder("posters.cache.evictions", evictions, AtomicLong::get).register(meterRegistry);
+        Gauge.builder("posters.cache.hit.ratio", this, PosterCache::hitRatio).register(meterRegistry);
+        Gauge.builder("posters.cache.bytes", this, PosterCache::usedBytes).baseUnit("bytes").register(meterRegistry);
+        Gauge.builder("posters.cache.entries", this, PosterCache::size).register(meterRegistry);
+    }
+
+    /**
+     * Obtiene el contenido de un póster en caché.
+     *
+     * @param fileName El nombre del archivo.
+     * @return Una vista de solo lectura del contenido, o {@code null} si no está en caché.
+     */
+    public ByteBuffer get(String fileName) {
+        ByteBuffer buffer;
+        synchronized (this) {
+            buffer = entries.get(fileName);
+        }
+        if (buffer == null) {
+            misses.incrementAndGet();
+            return null;
+        }
+        hits.incrementAndGet();
+        return buffer.asReadOnlyBuffer();
+    }
+
+    /**
+     * Carga un archivo en la caché si su tamaño lo permite.
+     *
+     * @param fileName El nombre con el que se guarda.
+     * @param size     El tamaño del archivo, ya conocido por quien lo solicita.
+     * @return Una vista de solo lectura del contenido, o {@code null} si el archivo es demasiado grande.
+     * @throws IOException Si ocurre un error al leer el archivo.
+     */
+    public ByteBuffer load(String fileName, long size) throws IOException {
+        if (size > maxEntryBytes || size > maxBytes) {
+            return null;
+        }
+        ByteBuffer buffer = ByteBuffer.allocateDirect((int) size);
+        // El almacenamiento escribe directamente en el buffer directo
+        posterStorage.transferTo(fileName, 0, size, new WritableByteChannel() {
+            @Override
+            public int write(ByteBuffer source) {
+                int count = Math.min(source.remaining(), buffer.remaining());
+                buffer.put(buffer.position(), source, source.position(), count);
+                buffer.position(buffer.position() + count);
+                source.position(source.position() + count);
+                return count;
+            }
+
+            @Override
+            public boolean isOpen() {
+                return true;
+            }
+
+            @Override
+            public void close() {
+            }
+        });
+        if (buffer.hasRemaining()) {
+            // El archivo cambió de tamaño mientras se leía; no se guarda un contenido incompleto
+            return null;
+        }
+        buffer.flip();
+
+        synchronized (this) {
+            ByteBuffer previous = entries.put(fileName, buffer);
+            if (previous != null) {
+                usedBytes -= previous.capacity();
+            }
+            usedBytes += buffer.capacity();
+            evictIfNeeded();
+        }
+        return buffer.asReadOnlyBuffer();
+    }
+
+    /**
+     * Elimina un archivo de la caché.
+     *
+     * @param fileName El nombre del archivo.
+     */
+    public synchronized void invalidate(String fileName) {
+        ByteBuffer removed = entries.remove(fileName);
+        if (removed != null) {
+            usedBytes -= removed.capacity();
+        }
+    }
+
+    public synchronized long usedBytes() {
+        return usedBytes;
+    }
+
+    public synchronized int size() {
+        return entries.size();
+    }
+
+    private double hitRatio() {
+        long hitCount = hits.get();
+        long total = hitCount + misses.get();
+        return total == 0 ? 0 : (double) hitCount / total;
+    }
+
+    // La memoria directa de las entradas desalojadas se libera cuando el GC recolecta el buffer
+    private void evictIfNeeded() {
+        Iterator<Map.Entry<String, ByteBuffer>> iterator = entries.entrySet().iterator();
+        while (usedBytes > maxBytes && iterator.hasNext()) {
+            usedBytes -= iterator.next().getValue().capacity();
+            iterator.remove();
+            evictions.incrementAndGet();
+        }
+    }
+}
@@ -0,0 +1,122 @@
+package com.maxi.movieapi.service.impl;
+
+import com.maxi.movieapi.repository.MovieRepository;
+import com.maxi.movieapi.service.PosterVariantService;
+import com.maxi.movieapi.service.storage.PosterStorage;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.io.IOException;
+import java.time.Duration;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+
+/**
+ * Elimina los pósters que ninguna película referencia, por ejemplo el póster anterior de una película actualizada
+ * o el de una transacción que falló después de subir el archivo.
+ * <p>
+ * Es incremental: cada ejecución revisa un único lote del almacenamiento, continuando donde terminó la anterior,
+ * y resuelve las referencias del lote con una sola consulta. Con lotes chicos y un intervalo fijo entre ejecuciones
+ * la carga de I/O queda acotada y no compite con las solicitudes. Solo se eliminan archivos más antiguos que el
+ * período de gracia, para no borrar un póster cuya película todavía se está guardando.
+ * <p>
+ * Se activa con {@code posters.gc.enabled=true}. Queda apagado por defecto: con {@code ddl-auto=create-drop} la tabla
+ * de películas se vacía en cada reinicio, y el recolector borraría todos los pósters al vencer el período de gracia.
+ */
+@Component
+@ConditionalOnProperty(name = "posters.gc.enabled", havingValue = "true")
+public class PosterGarbageCollector {
+
+    private static final Logger log = LoggerFactory.getLogger(PosterGarbageCollector.class);
+
+    private final PosterStorage posterStorage;
+    private final MovieRepository movieRepository;
+    private final PosterCache posterCache;
+    private final int batchSize;
+    private final Duration gracePeriod;
+
+    private final Counter scannedFiles;
+    private final Counter deletedFiles;
+    private final Counter reclaimedBytes;
+
+    // Última clave revisada; null para empezar una nueva pasada desde el principio
+    private String cursor;
+
+    public PosterGarbageCollector(PosterStorage posterStorage, MovieRepository movieRepository, PosterCache posterCache,
+                                  @Value("${posters.gc.batch-size:100}") int batchSize,
+                                  @Value("${posters.gc.grace-period:PT1H}") Duration gracePeriod,
+                                  MeterRegistry meterRegistry) {
+        this.posterStorage = posterStorage;
+        this.movieRepository = movieRepository;
+        this.posterCache = posterCache;
+        this.batchSize = batchSize;
+        this.gracePeriod = gracePeriod;
+
+        this.scannedFiles = Counter.builder("posters.gc.scanned.files").register(meterRegistry);
+        this.deletedFiles = Counter.builder("posters.gc.deleted.files").register(meterRegistry);
+        this.reclaimedBytes = Counter.builder("posters.gc.reclaimed.bytes").baseUnit("bytes").register(meterRegistry);
+    }
+
+    /**
+     * Revisa el siguiente lote de archivos y elimina los huérfanos.
+     */
+    @Scheduled(fixedDelayString = "${posters.gc.interval:10000}", initialDelayString = "${posters.gc.interval:10000}")
+    public synchronized void collect() {
+        try {
+            collectBatch();
+        } catch (IOException | RuntimeException e) {
+            log.warn("Poster garbage collection failed after {}", cursor, e);
+        }
+    }
+
+    private void collectBatch() throws IOException {
+        List<PosterStorage.StoredObject> batch = posterStorage.list(cursor, batchSize);
+        if (batch.isEmpty()) {
+            cursor = null;
+            return;
+        }
+        cursor = batch.get(batch.size() - 1).key();
+        scannedFiles.increment(batch.size());
+
+        // Las variantes se verifican por el póster original del que derivan. También se consulta la clave tal cual:
+        // un póster heredado puede llamarse "x_small.png" sin ser una variante
+        Set<String> candidates = new HashSet<>();
+        for (PosterStorage.StoredObject object : batch) {
+            candidates.add(object.key());
+            candidates.add(PosterVariantService.Variant.originalName(object.key()));
+        }
+        Set<String> referenced = movieRepository.findReferencedPosters(candidates);
+
+        long deadline = System.currentTimeMillis() - gracePeriod.toMillis();
+        int deleted = 0;
+        long bytes = 0;
+        for (PosterStorage.StoredObject object : batch) {
+            String original = PosterVariantService.Variant.originalName(object.key());
+            if (referenced.contains(object.key()) || referenced.contains(original) || object.lastModified() > deadline) {
+                continue;
+            }
+            // Una subida del mismo contenido posterior al listado renueva la fecha del archivo existente
+            if (posterStorage.stat(object.key()).map(current -> current.lastModified() > deadline).orElse(true)) {
+                continue;
+            }
+            if (posterStorage.delete(object.key())) {
+                posterCache.invalidate(object.key());
+                deleted++;
+                bytes += object.size();
+            }
+        }
+
+        if (deleted > 0) {
+            deletedFiles.increment(deleted);
+            reclaimedBytes.increment(bytes);
+            log.info("Deleted {} orphan posters ({} bytes)", deleted, bytes);
+        }
+    }
+}
@@ -0,0 +1,131 @@
+package com.maxi.movieapi.service.impl;
+
+import javax.imageio.ImageIO;
+import javax.imageio.ImageReader;
+import javax.imageio.stream.ImageInputStream;
+import javax.imageio.stream.MemoryCacheImageInputStream;
+import java.awt.image.BufferedImage;
+import java.io.FilterInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.Iterator;
+
+/**
+ * Lee las dimensiones y el tipo MIME de una imagen a partir de la cabecera de un flujo, sin decodificar los píxeles.
+ * La lectura está acotada a los primeros {@value #HEADER_BYTES} bytes, que es todo lo que se guarda en memoria.
+ * El color de relleno se calcula aparte, sobre una variante ya generada y de tamaño reducido.
+ */
+final class PosterMetadataExtractor {
+
+    // Máximo de bytes que se leen buscando la cabecera; alcanza para los metadatos EXIF/ICC habituales de un JPEG
+    static final int HEADER_BYTES = 256 * 1024;
+
+    record ImageInfo(int width, int height, String mimeType) {
+    }
+
+    private PosterMetadataExtractor() {
+    }
+
+    /**
+     * Lee la cabecera de la imagen del flujo. El flujo no se cierra y se consume como máximo hasta {@value #HEADER_BYTES} bytes.
+     *
+     * @param in El contenido del archivo.
+     * @return Los datos de la imagen, o {@code null} si no hay un lector de Image I/O para el formato.
+     * @throws IOException Si la cabecera está dañada o no entra en los bytes leídos.
+     */
+    static ImageInfo extract(InputStream in) throws IOException {
+        try (ImageInputStream imageInput = new MemoryCacheImageInputStream(new HeaderInputStream(in))) {
+            Iterator<ImageReader> readers = ImageIO.getImageReaders(imageInput);
+            if (!readers.hasNext()) {
+                return null;
+            }
+            ImageReader reader = readers.next();
+            try {
+                reader.setInput(imageInput, true, true);
+                String[] mimeTypes = reader.getOriginatingProvider().getMIMETypes();
+                String mimeType = mimeTypes != null && mimeTypes.length > 0 ? mimeTypes[0] : null;
+                return new ImageInfo(reader.getWidth(0), reader.getHeight(0), mimeType);
+            } finally {
+                reader.dispose();
+            }
+        }
+    }
+
+    /**
+     * Color promedio de los píxeles visibles en formato "#rrggbb", o {@code null} si la imagen es transparente.
+     * Se usa sobre la variante más chica del póster, por lo que recorre pocos píxeles.
+     */
+    static String placeholder(BufferedImage image) {
+        long red = 0;
+        long green = 0;
+        long blue = 0;
+        long count = 0;
+        for (int y = 0; y < image.getHeight(); y++) {
+            for (int x = 0; x < image.getWidth(); x++) {
+                int argb = image.getRGB(x, y);
+                if ((argb >>> 24) == 0) {
+                    continue;
+                }
+                red += (argb >> 16) & 0xFF;
+                green += (argb >> 8) & 0xFF;
+                blue += argb & 0xFF;
+                count++;
+            }
+        }
+        if (count == 0) {
+            return null;
+        }
+        return String.format("#%02x%02x%02x", red / count, green / count, blue / count);
+    }
+
+    // Flujo que termina al alcanzar HEADER_BYTES, para que el lector nunca guarde en memoria más que la cabecera
+    private static final class HeaderInputStream extends FilterInputStream {
+
+        private int remaining = HEADER_BYTES;
+
+        private HeaderInputStream(InputStream in) {
+            super(in);
+        }
+
+        @Override
+        public int read() throws IOException {
+            if (remaining <= 0) {
+                return -1;
+            }
+            int b = super.read();
+            if (b >= 0) {
+                remaining--;
+            }
+            return b;
+        }
+
+        @Override
+        public int read(byte[] buffer, int offset, int length) throws IOException {
+            if (remaining <= 0) {
+                return -1;
+            }
+            int n = super.read(buffer, offset, Math.min(length, remaining));
+            if (n > 0) {
+                remaining -= n;
+            }
+            return n;
+        }
+
+        @Override
+        public long skip(long n) throws IOException {
+            long skipped = super.skip(Math.min(n, remaining));
+            remaining -= (int) skipped;
+            return skipped;
+        }
+
+        @Override
+        public boolean markSupported() {
+            return false;
+        }
+
+        // El flujo de entrada lo sigue usando quien lo abrió
+        @Override
+        public void close() {
+        }
+    }
+}
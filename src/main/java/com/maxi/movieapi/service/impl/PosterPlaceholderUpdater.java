@@ -0,0 +1,95 @@
+package com.maxi.movieapi.service.impl;
+
+import com.maxi.movieapi.dto.MovieDto;
+import com.maxi.movieapi.entities.Movie;
+import com.maxi.movieapi.entities.PosterMetadata;
+import com.maxi.movieapi.repository.MovieRepository;
+import com.maxi.movieapi.service.MovieChangedEvent;
+import com.maxi.movieapi.service.PosterPlaceholderEvent;
+import com.maxi.movieapi.service.PosterVariantService;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.context.event.EventListener;
+import org.springframework.dao.OptimisticLockingFailureException;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.event.TransactionalEventListener;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.io.IOException;
+
+/**
+ * Completa el color de relleno de las películas cuyo póster todavía no lo tenía.
+ * <p>
+ * El color se calcula al generar las variantes, en segundo plano, y puede llegar antes o después de que se confirme
+ * la película que usa el póster. Por eso se completa desde los dos lados: al publicarse el color se actualizan las
+ * películas ya confirmadas, y al confirmarse una película sin color se toma de la variante si ya existe.
+ */
+@Component
+public class PosterPlaceholderUpdater {
+
+    private static final Logger log = LoggerFactory.getLogger(PosterPlaceholderUpdater.class);
+
+    private final MovieRepository movieRepository;
+    private final PosterVariantService posterVariantService;
+    private final MovieMapper movieMapper;
+    private final ApplicationEventPublisher eventPublisher;
+    private final TransactionTemplate transactionTemplate;
+
+    public PosterPlaceholderUpdater(MovieRepository movieRepository, PosterVariantService posterVariantService,
+                                    MovieMapper movieMapper, ApplicationEventPublisher eventPublisher,
+                                    PlatformTransactionManager transactionManager) {
+        this.movieRepository = movieRepository;
+        this.posterVariantService = posterVariantService;
+        this.movieMapper = movieMapper;
+        this.eventPublisher = eventPublisher;
+        // Se ejecuta también después de confirmar otra transacción, que ya no admite escrituras
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.transactionTemplate.setPropagationBehavior(TransactionDefinition.PROPAGATION_REQUIRES_NEW);
+    }
+
+    @EventListener
+    public void onPosterPlaceholder(PosterPlaceholderEvent event) {
+        update(event.fileName(), event.placeholder());
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onMovieChanged(MovieChangedEvent event) {
+        MovieDto movie = event.movie();
+        if (movie == null || movie.getPoster() == null
+                || (movie.getPosterMetadata() != null && movie.getPosterMetadata().placeholder() != null)) {
+            return;
+        }
+        try {
+            posterVariantService.getPlaceholder(movie.getPoster())
+                    .ifPresent(placeholder -> update(movie.getPoster(), placeholder));
+        } catch (IOException e) {
+            log.warn("Could not read placeholder of poster {}", movie.getPoster(), e);
+        }
+    }
+
+    private void update(String poster, String placeholder) {
+        try {
+            transactionTemplate.executeWithoutResult(status -> {
+                for (Movie movie : movieRepository.findAllByPoster(poster)) {
+                    PosterMetadata metadata = movie.getPosterMetadata();
+                    if (metadata == null) {
+                        metadata = new PosterMetadata();
+                        movie.setPosterMetadata(metadata);
+                    } else if (metadata.getPlaceholder() != null) {
+                        continue;
+                    }
+                    metadata.setPlaceholder(placeholder);
+
+                    MovieDto dto = movieMapper.toDto(movieRepository.saveAndFlush(movie));
+                    eventPublisher.publishEvent(new MovieChangedEvent(dto.getId(), dto));
+                }
+            });
+        } catch (OptimisticLockingFailureException e) {
+            // Una modificación concurrente publica su propio evento, que vuelve a intentar completar el color
+            log.debug("Concurrent change while setting placeholder of poster {}", poster, e);
+        }
+    }
+}
@@ -0,0 +1,266 @@
+package com.maxi.movieapi.service.impl;
+
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.maxi.movieapi.service.PosterPlaceholderEvent;
+import com.maxi.movieapi.service.PosterVariantService;
+import com.maxi.movieapi.service.storage.PosterStorage;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.stereotype.Service;
+
+import javax.imageio.ImageIO;
+import javax.imageio.ImageReadParam;
+import javax.imageio.ImageReader;
+import javax.imageio.stream.ImageInputStream;
+import java.awt.Graphics2D;
+import java.awt.RenderingHints;
+import java.awt.image.BufferedImage;
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.ArrayList;
+import java.util.EnumMap;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Genera las variantes de los pósters con Java Image I/O en un pool de hilos acotado.
+ * La cola tiene capacidad fija: cuando se llena, las subidas no esperan y la generación se vuelve a encolar
+ * la próxima vez que se solicite una variante. Ninguna solicitud decodifica imágenes en su propio hilo.
+ * <p>
+ * Antes de decodificar se leen las dimensiones de la cabecera: una imagen que supera el máximo de píxeles se marca como
+ * fallida sin decodificarla, porque unos pocos KB comprimidos pueden declarar cientos de millones de píxeles.
+ * Las demás se decodifican con submuestreo, a un ancho cercano al de la variante más grande que falte.
+ */
+@Service
+public class PosterVariantServiceImpl implements PosterVariantService {
+
+    private static final Logger log = LoggerFactory.getLogger(PosterVariantServiceImpl.class);
+
+    private final ThreadPoolExecutor executor;
+
+    // Estado por póster original mientras se genera o si falló; se quita al quedar listas las variantes,
+    // y el tamaño máximo acota las entradas de pósters que no pueden procesarse
+    private final Map<String, Status> statuses;
+
+    private final PosterStorage posterStorage;
+    private final ApplicationEventPublisher eventPublisher;
+    private final long maxPixels;
+
+    public PosterVariantServiceImpl(PosterStorage posterStorage, ApplicationEventPublisher eventPublisher,
+                                    @Value("${posters.variants.threads:2}") int threads,
+                                    @Value("${posters.variants.queue-capacity:100}") int queueCapacity,
+                                    @Value("${posters.variants.max-statuses:10000}") long maxStatuses,
+                                    @Value("${posters.variants.max-pixels:50000000}") long maxPixels) {
+        this.posterStorage = posterStorage;
+        this.eventPublisher = eventPublisher;
+        this.maxPixels = maxPixels;
+        this.statuses = Caffeine.newBuilder().maximumSize(maxStatuses).<String, Status>build().asMap();
+        AtomicInteger counter = new AtomicInteger();
+        this.executor = new ThreadPoolExecutor(threads, threads, 0L, TimeUnit.MILLISECONDS,
+                new ArrayBlockingQueue<>(queueCapacity),
+                runnable -> {
+                    Thread thread = new Thread(runnable, "poster-variants-" + counter.incrementAndGet());
+                    thread.setDaemon(true);
+                    return thread;
+                },
+                new ThreadPoolExecutor.AbortPolicy());
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        executor.shutdown();
+    }
+
+    @Override
+    public void scheduleVariants(String fileName) {
+        // Ya encolado, o falló: no se vuelve a decodificar
+        if (statuses.putIfAbsent(fileName, Status.PENDING) != null) {
+            return;
+        }
+        try {
+            executor.execute(() -> {
+                try {
+                    generateVariants(fileName);
+                } catch (IOException | RuntimeException e) {
+                    log.warn("Could not generate variants for poster {}", fileName, e);
+                    statuses.put(fileName, Status.FAILED);
+                }
+            });
+        } catch (RejectedExecutionException e) {
+            // Contrapresión: se descarta el trabajo y la variante se generará cuando se solicite
+            statuses.remove(fileName, Status.PENDING);
+        }
+    }
+
+    @Override
+    public String resolveVariant(String fileName, Variant variant) throws IOException {
+        if (variant == Variant.ORIGINAL) {
+            return fileName;
+        }
+
+        String variantName = variant.fileName(fileName);
+        if (posterStorage.exists(variantName)) {
+            return variantName;
+        }
+
+        // Mientras tanto se sirve el original; por ejemplo, para pósters subidos antes de existir las variantes
+        scheduleVariants(fileName);
+        return fileName;
+    }
+
+    @Override
+    public Optional<String> getPlaceholder(String fileName) throws IOException {
+        String smallName = Variant.SMALL.fileName(fileName);
+        if (!posterStorage.exists(smallName)) {
+            return Optional.empty();
+        }
+        BufferedImage image;
+        try (InputStream in = posterStorage.openStream(smallName)) {
+            image = ImageIO.read(in);
+        }
+        return image == null ? Optional.empty() : Optional.ofNullable(PosterMetadataExtractor.placeholder(image));
+    }
+
+    @Override
+    public Map<Variant, Status> getStatus(String fileName) {
+        Map<Variant, Status> result = new EnumMap<>(Variant.class);
+        for (Variant variant : Variant.values()) {
+            if (variant == Variant.ORIGINAL) {
+                continue;
+            }
+            boolean exists = posterStorage.exists(variant.fileName(fileName));
+            result.put(variant, exists ? Status.READY : statuses.getOrDefault(fileName, Status.PENDING));
+        }
+        return result;
+    }
+
+    // Genera las variantes que falten; marca el póster como fallido si no es una imagen que se pueda procesar
+    private void generateVariants(String fileName) throws IOException {
+        List<Variant> missing = missingVariants(fileName);
+        if (missing.isEmpty()) {
+            statuses.remove(fileName);
+            return;
+        }
+
+        String format = formatOf(fileName);
+        BufferedImage image = null;
+        if (format != null) {
+            int targetWidth = missing.stream().mapToInt(Variant::maxWidth).max().orElse(0);
+            try (InputStream in = posterStorage.openStream(fileName)) {
+                image = decode(fileName, in, targetWidth);
+            }
+        }
+        if (image == null) {
+            statuses.put(fileName, Status.FAILED);
+            return;
+        }
+
+        String placeholder = null;
+        for (Variant variant : missing) {
+            BufferedImage resized = resize(image, variant.maxWidth(), !"jpg".equals(format));
+            write(resized, format, variant.fileName(fileName));
+            if (variant == Variant.SMALL) {
+                placeholder = PosterMetadataExtractor.placeholder(resized);
+            }
+        }
+        // Con las variantes escritas, su existencia en el almacenamiento ya indica el estado
+        statuses.remove(fileName);
+
+        if (placeholder != null) {
+            eventPublisher.publishEvent(new PosterPlaceholderEvent(fileName, placeholder));
+        }
+    }
+
+    /**
+     * Decodifica la imagen submuestreada a un ancho de al menos {@code targetWidth}.
+     * Devuelve {@code null} si no hay un lector para el formato o si las dimensiones declaradas superan el máximo.
+     */
+    private BufferedImage decode(String fileName, InputStream in, int targetWidth) throws IOException {
+        try (ImageInputStream imageInput = ImageIO.createImageInputStream(in)) {
+            Iterator<ImageReader> readers = imageInput == null ? null : ImageIO.getImageReaders(imageInput);
+            if (readers == null || !readers.hasNext()) {
+                return null;
+            }
+            ImageReader reader = readers.next();
+            try {
+                reader.setInput(imageInput, true, true);
+                int width = reader.getWidth(0);
+                int height = reader.getHeight(0);
+                if ((long) width * height > maxPixels) {
+                    log.warn("Poster {} declares {}x{} pixels, above the limit of {}; variants are not generated",
+                            fileName, width, height, maxPixels);
+                    return null;
+                }
+                ImageReadParam param = reader.getDefaultReadParam();
+                int step = Math.max(1, width / Math.max(1, targetWidth));
+                param.setSourceSubsampling(step, step, 0, 0);
+                return reader.read(0, param);
+            } finally {
+                reader.dispose();
+            }
+        }
+    }
+
+    private List<Variant> missingVariants(String fileName) {
+        List<Variant> missing = new ArrayList<>();
+        for (Variant variant : Variant.values()) {
+            if (variant != Variant.ORIGINAL && !posterStorage.exists(variant.fileName(fileName))) {
+                missing.add(variant);
+            }
+        }
+        return missing;
+    }
+
+    private static BufferedImage resize(BufferedImage image, int maxWidth, boolean keepAlpha) {
+        if (image.getWidth() <= maxWidth) {
+            return image;
+        }
+        int height = Math.max(1, Math.round((float) image.getHeight() * maxWidth / image.getWidth()));
+        // JPEG no admite canal alfa
+        int type = keepAlpha && image.getColorModel().hasAlpha() ? BufferedImage.TYPE_INT_ARGB : BufferedImage.TYPE_INT_RGB;
+        BufferedImage resized = new BufferedImage(maxWidth, height, type);
+        Graphics2D graphics = resized.createGraphics();
+        try {
+            graphics.setRenderingHint(RenderingHints.KEY_INTERPOLATION, RenderingHints.VALUE_INTERPOLATION_BILINEAR);
+            graphics.setRenderingHint(RenderingHints.KEY_RENDERING, RenderingHints.VALUE_RENDER_QUALITY);
+            graphics.drawImage(image, 0, 0, maxWidth, height, null);
+        } finally {
+            graphics.dispose();
+        }
+        return resized;
+    }
+
+    // La variante solo queda visible al confirmarse, nunca a medio escribir
+    private void write(BufferedImage image, String format, String variantName) throws IOException {
+        try (PosterStorage.Staging staging = posterStorage.stage()) {
+            if (!ImageIO.write(image, format, staging.outputStream())) {
+                throw new IOException("No image writer for format " + format);
+            }
+            staging.commit(variantName);
+        }
+    }
+
+    // Formato de Image I/O según la extensión, o null si no se admite
+    private static String formatOf(String fileName) {
+        int dot = fileName.lastIndexOf('.');
+        String extension = dot < 0 ? "" : fileName.substring(dot + 1).toLowerCase(Locale.ROOT);
+        return switch (extension) {
+            case "png" -> "png";
+            case "jpg", "jpeg" -> "jpg";
+            case "gif" -> "gif";
+            case "bmp" -> "bmp";
+            default -> null;
+        };
+    }
+}
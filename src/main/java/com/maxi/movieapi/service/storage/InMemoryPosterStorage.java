@@ -0,0 +1,103 @@
+package com.maxi.movieapi.service.storage;
+
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Component;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.FileNotFoundException;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.ByteBuffer;
+import java.nio.channels.WritableByteChannel;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.ConcurrentNavigableMap;
+import java.util.concurrent.ConcurrentSkipListMap;
+
+/**
+ * Almacenamiento en memoria, pensado para pruebas: no toca el disco y se pierde al reiniciar.
+ */
+@Component
+@ConditionalOnProperty(name = "posters.storage", havingValue = "memory")
+public class InMemoryPosterStorage implements PosterStorage {
+
+    private record Blob(byte[] data, long lastModified) {
+    }
+
+    private final ConcurrentNavigableMap<String, Blob> blobs = new ConcurrentSkipListMap<>();
+
+    @Override
+    public Staging stage() {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+
+        return new Staging() {
+            @Override
+            public OutputStream outputStream() {
+                return out;
+            }
+
+            @Override
+            public void commit(String key) {
+                long now = System.currentTimeMillis();
+                blobs.merge(key, new Blob(out.toByteArray(), now), (existing, blob) -> new Blob(existing.data(), now));
+            }
+
+            @Override
+            public void close() {
+            }
+        };
+    }
+
+    @Override
+    public boolean exists(String key) {
+        return blobs.containsKey(key);
+    }
+
+    @Override
+    public Optional<StoredObject> stat(String key) {
+        Blob blob = blobs.get(key);
+        return blob == null ? Optional.empty() : Optional.of(new StoredObject(key, blob.data().length, blob.lastModified()));
+    }
+
+    @Override
+    public long transferTo(String key, long position, long count, WritableByteChannel target) throws IOException {
+        byte[] data = get(key).data();
+        int offset = (int) Math.min(position, data.length);
+        int length = (int) Math.min(count, data.length - offset);
+        ByteBuffer buffer = ByteBuffer.wrap(data, offset, length);
+        while (buffer.hasRemaining()) {
+            target.write(buffer);
+        }
+        return length;
+    }
+
+    @Override
+    public InputStream openStream(String key) throws IOException {
+        return new ByteArrayInputStream(get(key).data());
+    }
+
+    @Override
+    public boolean delete(String key) {
+        return blobs.remove(key) != null;
+    }
+
+    @Override
+    public List<StoredObject> list(String afterKey, int limit) {
+        Map<String, Blob> tail = afterKey == null ? blobs : blobs.tailMap(afterKey, false);
+        return tail.entrySet().stream()
+                .limit(limit)
+                .map(entry -> new StoredObject(entry.getKey(), entry.getValue().data().length, entry.getValue().lastModified()))
+                .toList();
+    }
+
+    private Blob get(String key) throws FileNotFoundException {
+        Blob blob = blobs.get(key);
+        if (blob == null) {
+            throw new FileNotFoundException("No se encontró el archivo");
+        }
+        return blob;
+    }
+}
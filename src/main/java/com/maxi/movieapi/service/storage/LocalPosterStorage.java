@@ -0,0 +1,285 @@
+package com.maxi.movieapi.service.storage;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Component;
+
+import java.io.FileNotFoundException;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.channels.FileChannel;
+import java.nio.channels.WritableByteChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.DirectoryStream;
+import java.nio.file.FileAlreadyExistsException;
+import java.nio.file.Files;
+import java.nio.file.NoSuchFileException;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.nio.file.attribute.BasicFileAttributes;
+import java.nio.file.attribute.FileTime;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HexFormat;
+import java.util.List;
+import java.util.Optional;
+import java.util.regex.Pattern;
+
+/**
+ * Almacenamiento en disco local con directorios anidados por prefijo de hash: la clave {@code abcd1234.png}
+ * se guarda en {@code ab/cd/abcd1234.png}, de modo que ningún directorio acumula cientos de miles de archivos.
+ * Las claves que no empiezan con un hash se distribuyen con el SHA-256 de la clave.
+ * <p>
+ * Mientras no se ejecute la migración, las lecturas que no encuentran la clave en su directorio por prefijo la buscan
+ * en el directorio raíz, donde la guardaba el esquema plano anterior.
+ */
+@Component
+@ConditionalOnProperty(name = "posters.storage", havingValue = "local", matchIfMissing = true)
+public class LocalPosterStorage implements PosterStorage {
+
+    private static final Logger log = LoggerFactory.getLogger(LocalPosterStorage.class);
+
+    private static final Pattern HEX_PREFIX = Pattern.compile("^[0-9a-f]{4}.*");
+    private static final Pattern SHARD_NAME = Pattern.compile("[0-9a-f]{2}");
+    private static final String STAGING_DIRECTORY = ".staging";
+
+    private final Path root;
+
+    public LocalPosterStorage(@Value("${project.poster}") String path) {
+        this.root = Paths.get(path).toAbsolutePath().normalize();
+    }
+
+    @Override
+    public Staging stage() throws IOException {
+        Path directory = Files.createDirectories(root.resolve(STAGING_DIRECTORY));
+        Path tempFile = Files.createTempFile(directory, "upload-", ".tmp");
+        OutputStream out = Files.newOutputStream(tempFile);
+
+        return new Staging() {
+            @Override
+            public OutputStream outputStream() {
+                return out;
+            }
+
+            @Override
+            public void commit(String key) throws IOException {
+                out.close();
+                Path target = resolve(key);
+                if (Files.exists(target)) {
+                    touch(target);
+                    return;
+                }
+                Files.createDirectories(target.getParent());
+                try {
+                    // El área temporal está en el mismo sistema de archivos: el movimiento es un renombrado atómico
+                    Files.move(tempFile, target, StandardCopyOption.ATOMIC_MOVE);
+                } catch (FileAlreadyExistsException e) {
+                    // Otra escritura concurrente guardó la misma clave
+                    touch(target);
+                }
+            }
+
+            @Override
+            public void close() throws IOException {
+                out.close();
+                Files.deleteIfExists(tempFile);
+            }
+        };
+    }
+
+    @Override
+    public boolean exists(String key) {
+        try {
+            return Files.isRegularFile(locate(key));
+        } catch (FileNotFoundException e) {
+            return false;
+        }
+    }
+
+    @Override
+    public Optional<StoredObject> stat(String key) throws IOException {
+        try {
+            BasicFileAttributes attributes = Files.readAttributes(locate(key), BasicFileAttributes.class);
+            if (!attributes.isRegularFile()) {
+                return Optional.empty();
+            }
+            return Optional.of(new StoredObject(key, attributes.size(), attributes.lastModifiedTime().toMillis()));
+        } catch (FileNotFoundException | NoSuchFileException e) {
+            return Optional.empty();
+        }
+    }
+
+    @Override
+    public long transferTo(String key, long position, long count, WritableByteChannel target) throws IOException {
+        try (FileChannel channel = FileChannel.open(existing(key), StandardOpenOption.READ)) {
+            long transferredTotal = 0;
+            while (transferredTotal < count) {
+                long transferred = channel.transferTo(position + transferredTotal, count - transferredTotal, target);
+                if (transferred <= 0) {
+                    break;
+                }
+                transferredTotal += transferred;
+            }
+            return transferredTotal;
+        }
+    }
+
+    @Override
+    public InputStream openStream(String key) throws IOException {
+        return Files.newInputStream(existing(key));
+    }
+
+    @Override
+    public boolean delete(String key) throws IOException {
+        boolean deleted = Files.deleteIfExists(resolve(key));
+        return Files.deleteIfExists(root.resolve(key)) || deleted;
+    }
+
+    /**
+     * Recorre los directorios por prefijo en orden; para continuar desde {@code afterKey} solo se abren
+     * su directorio y los siguientes. Los archivos del esquema plano que no se migraron no se listan.
+     */
+    @Override
+    public List<StoredObject> list(String afterKey, int limit) throws IOException {
+        List<StoredObject> result = new ArrayList<>();
+        String afterShard = afterKey == null ? "" : shardOf(afterKey);
+
+        for (String first : sortedNames(root, true)) {
+            if (!isShardName(first) || (!afterShard.isEmpty() && first.compareTo(afterShard.substring(0, 2)) < 0)) {
+                continue;
+            }
+            for (String second : sortedNames(root.resolve(first), true)) {
+                String shard = first + "/" + second;
+                if (!isShardName(second) || shard.compareTo(afterShard) < 0) {
+                    continue;
+                }
+                Path directory = root.resolve(first).resolve(second);
+                for (String name : sortedNames(directory, false)) {
+                    if (shard.equals(afterShard) && name.compareTo(afterKey) <= 0) {
+                        continue;
+                    }
+                    Optional<StoredObject> object = stat(name);
+                    if (object.isPresent()) {
+                        result.add(object.get());
+                        if (result.size() >= limit) {
+                            return result;
+                        }
+                    }
+                }
+            }
+        }
+        return result;
+    }
+
+    /**
+     * Mueve los archivos del esquema plano anterior (todos en el directorio raíz) a su directorio por prefijo.
+     * Es idempotente: puede ejecutarse varias veces o reanudarse tras una interrupción.
+     *
+     * @return La cantidad de archivos movidos.
+     * @throws IOException Si ocurre un error al mover un archivo.
+     */
+    public int migrateFlatLayout() throws IOException {
+        if (!Files.isDirectory(root)) {
+            return 0;
+        }
+        int moved = 0;
+        // Se ignoran los temporales de subidas interrumpidas del esquema anterior
+        DirectoryStream.Filter<Path> filter = file -> Files.isRegularFile(file)
+                && !file.getFileName().toString().endsWith(".tmp");
+        try (DirectoryStream<Path> files = Files.newDirectoryStream(root, filter)) {
+            for (Path file : files) {
+                Path target;
+                try {
+                    target = resolve(file.getFileName().toString());
+                } catch (FileNotFoundException e) {
+                    // Archivos ocultos como .DS_Store o .gitkeep: no son pósters y no se pueden servir
+                    log.info("Skipping {} during poster layout migration: not a valid poster key", file.getFileName());
+                    continue;
+                }
+                Files.createDirectories(target.getParent());
+                if (Files.exists(target)) {
+                    Files.delete(file);
+                } else {
+                    Files.move(file, target, StandardCopyOption.ATOMIC_MOVE);
+                }
+                moved++;
+            }
+        }
+        return moved;
+    }
+
+    // Ruta sharded de una clave; se rechazan claves que intenten salir del directorio raíz
+    Path resolve(String key) throws FileNotFoundException {
+        if (key == null || key.isEmpty() || key.contains("/") || key.contains("\\") || key.startsWith(".")) {
+            throw new FileNotFoundException("No se encontró el archivo");
+        }
+        String shard = shardOf(key);
+        return root.resolve(shard.substring(0, 2)).resolve(shard.substring(3, 5)).resolve(key);
+    }
+
+    // Ruta existente de una clave: la sharded o, si todavía no se migró, la del esquema plano
+    private Path locate(String key) throws FileNotFoundException {
+        Path sharded = resolve(key);
+        if (Files.exists(sharded)) {
+            return sharded;
+        }
+        Path flat = root.resolve(key);
+        return Files.isRegularFile(flat) ? flat : sharded;
+    }
+
+    // Directorio de una clave en la forma "ab/cd"
+    private static String shardOf(String key) {
+        String hash = HEX_PREFIX.matcher(key).matches() ? key : sha256Hex(key);
+        return hash.substring(0, 2) + "/" + hash.substring(2, 4);
+    }
+
+    private static boolean isShardName(String name) {
+        return SHARD_NAME.matcher(name).matches();
+    }
+
+    // Nombres de los subdirectorios (o de los archivos) de un directorio, ordenados
+    private static List<String> sortedNames(Path directory, boolean directories) throws IOException {
+        List<String> names = new ArrayList<>();
+        if (!Files.isDirectory(directory)) {
+            return names;
+        }
+        try (DirectoryStream<Path> entries = Files.newDirectoryStream(directory,
+                entry -> directories ? Files.isDirectory(entry) : Files.isRegularFile(entry))) {
+            entries.forEach(entry -> names.add(entry.getFileName().toString()));
+        }
+        Collections.sort(names);
+        return names;
+    }
+
+    private static void touch(Path file) throws IOException {
+        try {
+            Files.setLastModifiedTime(file, FileTime.fromMillis(System.currentTimeMillis()));
+        } catch (NoSuchFileException e) {
+            // Se eliminó mientras tanto; la siguiente subida lo volverá a guardar
+        }
+    }
+
+    private Path existing(String key) throws FileNotFoundException {
+        Path file = locate(key);
+        if (!Files.isRegularFile(file)) {
+            throw new FileNotFoundException("No se encontró el archivo");
+        }
+        return file;
+    }
+
+    private static String sha256Hex(String key) {
+        try {
+            MessageDigest digest = MessageDigest.getInstance("SHA-256");
+            return HexFormat.of().formatHex(digest.digest(key.getBytes(StandardCharsets.UTF_8)));
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 not available", e);
+        }
+    }
+}
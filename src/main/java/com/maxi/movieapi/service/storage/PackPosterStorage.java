@@ -0,0 +1,435 @@
+package com.maxi.movieapi.service.storage;
+
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.io.ByteArrayInputStream;
+import java.io.FileNotFoundException;
+import java.io.FilterOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.channels.WritableByteChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.ConcurrentNavigableMap;
+import java.util.concurrent.ConcurrentSkipListMap;
+
+/**
+ * Almacenamiento en archivos de paquete: los pósters se agregan uno detrás de otro en segmentos de tamaño fijo
+ * mapeados en memoria, con un índice en memoria de clave a posición. Una lectura no abre archivos ni usa descriptores:
+ * copia directamente desde la región mapeada.
+ * <p>
+ * Cada registro tiene la forma {@code [magic][keyLen][flags][lastModified][dataLen][key][data]}. El número mágico se
+ * escribe al final, de modo que un registro a medio escribir por una caída no se considera al reconstruir el índice.
+ * Las eliminaciones agregan una lápida; la compactación reescribe los registros vivos de los segmentos con mucho
+ * espacio muerto y elimina el segmento.
+ * <p>
+ * Las subidas se escriben primero en un archivo temporal y al confirmar se copian directamente a la región mapeada,
+ * sin pasar el contenido completo por el heap. El tamaño de cada póster se limita con {@code posters.pack.max-object-bytes}.
+ */
+@Component
+@ConditionalOnProperty(name = "posters.storage", havingValue = "pack")
+public class PackPosterStorage implements PosterStorage {
+
+    private static final Logger log = LoggerFactory.getLogger(PackPosterStorage.class);
+
+    private static final int MAGIC = 0x50434B31;
+    private static final byte FLAG_DELETED = 1;
+    // magic + keyLen + flags + lastModified + dataLen
+    private static final int HEADER_BYTES = 4 + 2 + 1 + 8 + 4;
+    private static final String SEGMENT_PREFIX = "segment-";
+    private static final String SEGMENT_SUFFIX = ".pack";
+    private static final String STAGING_DIRECTORY = ".staging";
+
+    /**
+     * Segmento mapeado en memoria. El canal se cierra después de mapearlo: el mapeo sigue siendo válido,
+     * incluso si la compactación elimina el archivo mientras una lectura todavía lo usa.
+     */
+    private static final class Segment {
+        final long id;
+        final Path file;
+        final MappedByteBuffer buffer;
+        int writePosition;
+        long deadBytes;
+
+        Segment(long id, Path file, MappedByteBuffer buffer) {
+            this.id = id;
+            this.file = file;
+            this.buffer = buffer;
+        }
+
+        double deadRatio() {
+            return writePosition == 0 ? 0 : (double) deadBytes / writePosition;
+        }
+    }
+
+    // Posición de un registro vivo dentro de un segmento
+    private record Location(Segment segment, int recordOffset, int recordLength, int dataOffset, int dataLength,
+                            long lastModified) {
+    }
+
+    // Escribe el contenido de un registro en la región del segmento reservada para sus datos
+    @FunctionalInterface
+    private interface Content {
+        void writeTo(ByteBuffer target) throws IOException;
+    }
+
+    private static final Content EMPTY = target -> {
+    };
+
+    // Registro leído al recorrer un segmento
+    private record Entry(String key, boolean deleted, int recordOffset, int recordLength, int dataOffset,
+                         int dataLength, long lastModified) {
+    }
+
+    private final Path directory;
+    private final Path stagingDirectory;
+    private final int segmentBytes;
+    private final long maxObjectBytes;
+    private final double compactionThreshold;
+
+    // Ordenado por clave para poder listar en lotes
+    private final ConcurrentNavigableMap<String, Location> index = new ConcurrentSkipListMap<>();
+    private final ConcurrentSkipListMap<Long, Segment> segments = new ConcurrentSkipListMap<>();
+
+    // Segmento en el que se agregan los registros; las escrituras y la compactación se serializan sobre "this"
+    private Segment active;
+
+    public PackPosterStorage(@Value("${project.poster}") String path,
+                             @Value("${posters.pack.segment-bytes:67108864}") int segmentBytes,
+                             @Value("${posters.pack.compaction-threshold:0.5}") double compactionThreshold,
+                             @Value("${posters.pack.max-object-bytes:16777216}") long maxObjectBytes,
+                             MeterRegistry meterRegistry) throws IOException {
+        Path root = Paths.get(path).toAbsolutePath().normalize();
+        this.directory = root.resolve("packs");
+        this.stagingDirectory = root.resolve(STAGING_DIRECTORY);
+        this.segmentBytes = segmentBytes;
+        this.compactionThreshold = compactionThreshold;
+        this.maxObjectBytes = maxObjectBytes;
+
+        Files.createDirectories(directory);
+        Files.createDirectories(stagingDirectory);
+        rebuildIndex();
+
+        Gauge.builder("posters.pack.segments", segments, Map::size).register(meterRegistry);
+        Gauge.builder("posters.pack.entries", index, Map::size).register(meterRegistry);
+        Gauge.builder("posters.pack.dead.bytes", this, PackPosterStorage::deadBytes).baseUnit("bytes").register(meterRegistry);
+    }
+
+    @Override
+    public Staging stage() throws IOException {
+        Path tempFile = Files.createTempFile(stagingDirectory, "upload-", ".tmp");
+        OutputStream out = new FilterOutputStream(Files.newOutputStream(tempFile)) {
+            private long written;
+
+            @Override
+            public void write(int b) throws IOException {
+                reserve(1);
+                out.write(b);
+            }
+
+            @Override
+            public void write(byte[] b, int off, int len) throws IOException {
+                reserve(len);
+                out.write(b, off, len);
+            }
+
+            // Se corta la subida apenas supera el límite, antes de seguir llenando el disco
+            private void reserve(int bytes) throws IOException {
+                written += bytes;
+                if (written > maxObjectBytes) {
+                    throw new IOException("Poster exceeds the pack storage limit of " + maxObjectBytes + " bytes");
+                }
+            }
+        };
+
+        return new Staging() {
+            @Override
+            public OutputStream outputStream() {
+                return out;
+            }
+
+            @Override
+            public void commit(String key) throws IOException {
+                out.close();
+                append(key, tempFile);
+            }
+
+            @Override
+            public void close() throws IOException {
+                out.close();
+                Files.deleteIfExists(tempFile);
+            }
+        };
+    }
+
+    @Override
+    public boolean exists(String key) {
+        return index.containsKey(key);
+    }
+
+    @Override
+    public Optional<StoredObject> stat(String key) {
+        Location location = index.get(key);
+        return location == null
+                ? Optional.empty()
+                : Optional.of(new StoredObject(key, location.dataLength(), location.lastModified()));
+    }
+
+    @Override
+    public long transferTo(String key, long position, long count, WritableByteChannel target) throws IOException {
+        ByteBuffer data = data(key);
+        int offset = (int) Math.min(position, data.remaining());
+        int length = (int) Math.min(count, data.remaining() - offset);
+        ByteBuffer slice = data.slice(offset, length);
+        while (slice.hasRemaining()) {
+            target.write(slice);
+        }
+        return length;
+    }
+
+    @Override
+    public InputStream openStream(String key) throws IOException {
+        ByteBuffer data = data(key);
+        byte[] bytes = new byte[data.remaining()];
+        data.get(bytes);
+        return new ByteArrayInputStream(bytes);
+    }
+
+    @Override
+    public List<StoredObject> list(String afterKey, int limit) {
+        Map<String, Location> tail = afterKey == null ? index : index.tailMap(afterKey, false);
+        return tail.entrySet().stream()
+                .limit(limit)
+                .map(entry -> new StoredObject(entry.getKey(), entry.getValue().dataLength(), entry.getValue().lastModified()))
+                .toList();
+    }
+
+    @Override
+    public synchronized boolean delete(String key) throws IOException {
+        Location location = index.get(key);
+        if (location == null) {
+            return false;
+        }
+        Location tombstone = write(key, FLAG_DELETED, 0, EMPTY);
+        index.remove(key);
+        location.segment().deadBytes += location.recordLength();
+        // La lápida en sí también es espacio muerto: solo existe para que el registro no reaparezca al reiniciar
+        tombstone.segment().deadBytes += tombstone.recordLength();
+        return true;
+    }
+
+    /**
+     * Compacta los segmentos cerrados cuya proporción de espacio muerto supera el umbral:
+     * sus registros vivos se agregan de nuevo al segmento activo y el archivo se elimina.
+     */
+    @Scheduled(fixedDelayString = "${posters.pack.compaction-interval:300000}")
+    public synchronized void compact() throws IOException {
+        for (Segment segment : List.copyOf(segments.values())) {
+            if (segment != active && segment.deadRatio() >= compactionThreshold) {
+                compact(segment);
+            }
+        }
+    }
+
+    private void compact(Segment segment) throws IOException {
+        long start = System.currentTimeMillis();
+        // Las lápidas solo hacen falta mientras exista un segmento más antiguo que pueda tener el registro eliminado
+        boolean olderSegments = segments.lowerKey(segment.id) != null;
+        int moved = 0;
+
+        for (Entry entry : scan(segment)) {
+            if (entry.deleted()) {
+                if (olderSegments && !index.containsKey(entry.key())) {
+                    Location tombstone = write(entry.key(), FLAG_DELETED, 0, EMPTY);
+                    tombstone.segment().deadBytes += tombstone.recordLength();
+                }
+                continue;
+            }
+            Location location = index.get(entry.key());
+            if (location == null || location.segment() != segment || location.recordOffset() != entry.recordOffset()) {
+                continue;
+            }
+            ByteBuffer data = segment.buffer.slice(entry.dataOffset(), entry.dataLength());
+            index.put(entry.key(), write(entry.key(), (byte) 0, entry.dataLength(), target -> target.put(data),
+                    entry.lastModified()));
+            moved++;
+        }
+
+        segments.remove(segment.id);
+        Files.deleteIfExists(segment.file);
+        log.info("Compacted pack segment {}: {} live posters moved, {} bytes reclaimed in {} ms",
+                segment.id, moved, segment.deadBytes, System.currentTimeMillis() - start);
+    }
+
+    private synchronized void append(String key, Path file) throws IOException {
+        Location existing = index.get(key);
+        if (existing != null) {
+            // Se actualiza la fecha en el propio registro, sin reescribir el contenido
+            long now = System.currentTimeMillis();
+            existing.segment().buffer.putLong(existing.recordOffset() + 7, now);
+            index.put(key, new Location(existing.segment(), existing.recordOffset(), existing.recordLength(),
+                    existing.dataOffset(), existing.dataLength(), now));
+            return;
+        }
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+            long size = channel.size();
+            if (size > Math.min(maxObjectBytes, Integer.MAX_VALUE)) {
+                throw new IOException("Poster exceeds the pack storage limit of " + maxObjectBytes + " bytes");
+            }
+            // El archivo temporal se lee directamente a la región mapeada del segmento
+            index.put(key, write(key, (byte) 0, (int) size, target -> {
+                while (target.hasRemaining()) {
+                    if (channel.read(target) < 0) {
+                        throw new IOException("Staged poster was truncated: " + key);
+                    }
+                }
+            }));
+        }
+    }
+
+    private Location write(String key, byte flags, int dataLength, Content content) throws IOException {
+        return write(key, flags, dataLength, content, System.currentTimeMillis());
+    }
+
+    // Agrega un registro al segmento activo, abriendo uno nuevo si no entra
+    private Location write(String key, byte flags, int dataLength, Content content, long lastModified) throws IOException {
+        byte[] keyBytes = key.getBytes(StandardCharsets.UTF_8);
+        if (keyBytes.length > Short.MAX_VALUE) {
+            throw new IOException("Poster key too long for pack storage: " + key);
+        }
+        long recordSize = (long) HEADER_BYTES + keyBytes.length + dataLength;
+        if (recordSize > Integer.MAX_VALUE) {
+            throw new IOException("Poster too large for pack storage: " + key);
+        }
+        int recordLength = (int) recordSize;
+
+        if (active == null || active.buffer.capacity() - active.writePosition < recordLength) {
+            active = createSegment(Math.max(segmentBytes, recordLength));
+        }
+
+        MappedByteBuffer buffer = active.buffer;
+        int offset = active.writePosition;
+        int dataOffset = offset + HEADER_BYTES + keyBytes.length;
+        buffer.putShort(offset + 4, (short) keyBytes.length);
+        buffer.put(offset + 6, flags);
+        buffer.putLong(offset + 7, lastModified);
+        buffer.putInt(offset + 15, dataLength);
+        buffer.put(offset + HEADER_BYTES, keyBytes);
+        content.writeTo(buffer.slice(dataOffset, dataLength));
+        buffer.force(offset + 4, recordLength - 4);
+        // El número mágico va al final: hasta este punto el registro no existe para la reconstrucción del índice
+        buffer.putInt(offset, MAGIC);
+        buffer.force(offset, 4);
+
+        active.writePosition += recordLength;
+        return new Location(active, offset, recordLength, dataOffset, dataLength, lastModified);
+    }
+
+    private ByteBuffer data(String key) throws FileNotFoundException {
+        Location location = index.get(key);
+        if (location == null) {
+            throw new FileNotFoundException("No se encontró el archivo");
+        }
+        // Vista independiente: cada lectura tiene su propia posición y límite sobre el mismo mapeo
+        return location.segment().buffer.slice(location.dataOffset(), location.dataLength()).asReadOnlyBuffer();
+    }
+
+    private Segment createSegment(int size) throws IOException {
+        long id = segments.isEmpty() ? 1 : segments.lastKey() + 1;
+        Path file = directory.resolve(String.format("%s%012d%s", SEGMENT_PREFIX, id, SEGMENT_SUFFIX));
+        Segment segment = map(id, file, size);
+        segments.put(id, segment);
+        return segment;
+    }
+
+    private static Segment map(long id, Path file, long size) throws IOException {
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.CREATE, StandardOpenOption.READ,
+                StandardOpenOption.WRITE)) {
+            // El mapeo extiende el archivo con ceros hasta el tamaño del segmento
+            long mappedSize = Math.max(size, channel.size());
+            return new Segment(id, file, channel.map(FileChannel.MapMode.READ_WRITE, 0, mappedSize));
+        }
+    }
+
+    // Reconstruye el índice recorriendo los segmentos en orden de escritura; solo se leen las cabeceras
+    private void rebuildIndex() throws IOException {
+        long start = System.currentTimeMillis();
+        List<Path> files = new ArrayList<>();
+        try (DirectoryStream<Path> stream = Files.newDirectoryStream(directory, SEGMENT_PREFIX + "*" + SEGMENT_SUFFIX)) {
+            stream.forEach(files::add);
+        }
+
+        for (Path file : files) {
+            String name = file.getFileName().toString();
+            long id = Long.parseLong(name.substring(SEGMENT_PREFIX.length(), name.length() - SEGMENT_SUFFIX.length()));
+            segments.put(id, map(id, file, 0));
+        }
+
+        for (Segment segment : segments.values()) {
+            for (Entry entry : scan(segment)) {
+                Location previous = entry.deleted() ? index.remove(entry.key()) : index.put(entry.key(),
+                        new Location(segment, entry.recordOffset(), entry.recordLength(), entry.dataOffset(),
+                                entry.dataLength(), entry.lastModified()));
+                if (previous != null) {
+                    previous.segment().deadBytes += previous.recordLength();
+                }
+                if (entry.deleted()) {
+                    segment.deadBytes += entry.recordLength();
+                }
+            }
+        }
+
+        active = segments.isEmpty() ? null : segments.lastEntry().getValue();
+        log.info("Rebuilt pack index: {} posters in {} segments in {} ms",
+                index.size(), segments.size(), System.currentTimeMillis() - start);
+    }
+
+    // Recorre los registros completos de un segmento y deja la posición de escritura al final del último
+    private static List<Entry> scan(Segment segment) {
+        MappedByteBuffer buffer = segment.buffer;
+        List<Entry> entries = new ArrayList<>();
+        int offset = 0;
+        while (offset + HEADER_BYTES <= buffer.capacity() && buffer.getInt(offset) == MAGIC) {
+            int keyLength = buffer.getShort(offset + 4);
+            boolean deleted = (buffer.get(offset + 6) & FLAG_DELETED) != 0;
+            long lastModified = buffer.getLong(offset + 7);
+            int dataLength = buffer.getInt(offset + 15);
+            byte[] keyBytes = new byte[keyLength];
+            buffer.get(offset + HEADER_BYTES, keyBytes);
+            int dataOffset = offset + HEADER_BYTES + keyLength;
+            int recordLength = HEADER_BYTES + keyLength + dataLength;
+            entries.add(new Entry(new String(keyBytes, StandardCharsets.UTF_8), deleted, offset, recordLength,
+                    dataOffset, dataLength, lastModified));
+            offset += recordLength;
+        }
+        segment.writePosition = Math.max(segment.writePosition, offset);
+        return entries;
+    }
+
+    private synchronized long deadBytes() {
+        long total = 0;
+        for (Segment segment : segments.values()) {
+            total += segment.deadBytes;
+        }
+        return total;
+    }
+}
@@ -0,0 +1,38 @@
+package com.maxi.movieapi.service.storage;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.boot.ApplicationArguments;
+import org.springframework.boot.ApplicationRunner;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Component;
+
+/**
+ * Migración del esquema plano de pósters (todos los archivos en {@code project.poster}) al esquema por prefijo de hash.
+ * Se ejecuta al arrancar solo si {@code posters.storage.migrate-flat-layout=true}; al ser idempotente, puede dejarse
+ * activada hasta confirmar que todas las instancias terminaron de migrar. Mientras no se ejecute, los pósters del
+ * esquema plano se siguen sirviendo desde el directorio raíz.
+ */
+@Component
+@ConditionalOnProperty(name = "posters.storage.migrate-flat-layout", havingValue = "true")
+public class PosterLayoutMigration implements ApplicationRunner {
+
+    private static final Logger log = LoggerFactory.getLogger(PosterLayoutMigration.class);
+
+    private final PosterStorage posterStorage;
+
+    public PosterLayoutMigration(PosterStorage posterStorage) {
+        this.posterStorage = posterStorage;
+    }
+
+    @Override
+    public void run(ApplicationArguments args) throws Exception {
+        if (!(posterStorage instanceof LocalPosterStorage localPosterStorage)) {
+            log.warn("Poster layout migration skipped: the active storage is not the local one");
+            return;
+        }
+        long start = System.currentTimeMillis();
+        int moved = localPosterStorage.migrateFlatLayout();
+        log.info("Migrated {} posters to the sharded layout in {} ms", moved, System.currentTimeMillis() - start);
+    }
+}
@@ -0,0 +1,80 @@
+package com.maxi.movieapi.service.storage;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.channels.WritableByteChannel;
+import java.util.List;
+import java.util.Optional;
+
+/**
+ * SPI de almacenamiento de pósters.
+ * {@link com.maxi.movieapi.service.FileService} resuelve nombres, hashes y variantes; cada implementación de esta
+ * interfaz solo guarda y recupera bytes por clave, por lo que un backend nuevo se agrega sin tocar el resto del código.
+ * La implementación activa se elige con la propiedad {@code posters.storage}.
+ */
+public interface PosterStorage {
+
+    /**
+     * Metadatos de un objeto almacenado.
+     *
+     * @param key          La clave del objeto.
+     * @param size         El tamaño en bytes.
+     * @param lastModified La fecha de última modificación en milisegundos.
+     */
+    record StoredObject(String key, long size, long lastModified) {
+    }
+
+    /**
+     * Área de escritura de un objeto nuevo cuya clave se conoce recién al terminar de escribirlo
+     * (por ejemplo, el hash de su contenido). Si se cierra sin confirmar, el contenido se descarta.
+     */
+    interface Staging extends Closeable {
+
+        OutputStream outputStream();
+
+        /**
+         * Confirma el contenido escrito bajo la clave indicada. Si la clave ya existe se conserva el objeto existente
+         * y se actualiza su fecha de modificación, para que no se considere huérfano mientras se guarda su referencia.
+         *
+         * @param key La clave final del objeto.
+         * @throws IOException Si ocurre un error al guardar el objeto.
+         */
+        void commit(String key) throws IOException;
+    }
+
+    /**
+     * Inicia la escritura de un objeto nuevo.
+     */
+    Staging stage() throws IOException;
+
+    boolean exists(String key);
+
+    Optional<StoredObject> stat(String key) throws IOException;
+
+    /**
+     * Escribe un rango del objeto en el canal indicado.
+     *
+     * @return La cantidad de bytes escritos.
+     */
+    long transferTo(String key, long position, long count, WritableByteChannel target) throws IOException;
+
+    InputStream openStream(String key) throws IOException;
+
+    /**
+     * Lista los objetos almacenados en lotes, en un orden estable propio de cada implementación.
+     *
+     * @param afterKey La última clave del lote anterior, o {@code null} para empezar desde el principio.
+     * @param limit    La cantidad máxima de objetos a devolver.
+     * @return Los objetos siguientes a {@code afterKey}; una lista vacía indica el final.
+     */
+    List<StoredObject> list(String afterKey, int limit) throws IOException;
+
+    /**
+     * Elimina un objeto.
+     *
+     * @return {@code true} si el objeto existía.
+     */
+    boolean delete(String key) throws IOException;
+}
@@ -0,0 +1,167 @@
+package com.maxi.movieapi.controllers;
+
+import com.maxi.movieapi.service.FileService;
+import com.maxi.movieapi.service.PosterVariantService;
+import com.maxi.movieapi.service.impl.PosterCache;
+import com.maxi.movieapi.service.storage.PosterStorage;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.http.HttpHeaders;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
+import org.springframework.test.web.servlet.setup.MockMvcBuilders;
+
+import java.nio.ByteBuffer;
+import java.nio.channels.WritableByteChannel;
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+import java.util.Optional;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.reset;
+import static org.mockito.Mockito.when;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+
+/**
+ * Solicitudes parciales sobre los dos caminos de {@link FileController}: el póster servido desde la caché fuera del
+ * heap y el transferido por el almacenamiento cuando no entra en la caché. Cada prueba recorre ambos caminos.
+ */
+class FileControllerRangeTests {
+
+    private static final String POSTER = "a".repeat(64) + ".png";
+    private static final byte[] CONTENT = "0123456789".getBytes(StandardCharsets.UTF_8);
+
+    private final FileService fileService = mock(FileService.class);
+    private final PosterVariantService posterVariantService = mock(PosterVariantService.class);
+    private final PosterCache posterCache = mock(PosterCache.class);
+    private MockMvc mockMvc;
+
+    @BeforeEach
+    void setUp() {
+        mockMvc = MockMvcBuilders.standaloneSetup(new FileController(fileService, posterVariantService, posterCache)).build();
+    }
+
+    // Configura los dobles para que el póster se sirva desde la caché o se transfiera desde el almacenamiento
+    private void serve(String fileName, boolean cached) throws Exception {
+        reset(fileService, posterVariantService, posterCache);
+        when(fileService.getMimeType(anyString())).thenReturn(Optional.empty());
+        if (cached) {
+            // Cada acierto devuelve una vista propia, como la caché real
+            when(posterCache.get(fileName)).thenAnswer(invocation -> ByteBuffer.wrap(CONTENT).asReadOnlyBuffer());
+            return;
+        }
+        when(fileService.getResourceInfo(fileName)).thenReturn(new PosterStorage.StoredObject(fileName, CONTENT.length, 1000L));
+        when(posterVariantService.resolveVariant(fileName, PosterVariantService.Variant.ORIGINAL)).thenReturn(fileName);
+        when(fileService.transferTo(eq(fileName), anyLong(), anyLong(), any())).thenAnswer(invocation -> {
+            int position = (int) (long) invocation.getArgument(1);
+            int count = (int) (long) invocation.getArgument(2);
+            WritableByteChannel target = invocation.getArgument(3);
+            return (long) target.write(ByteBuffer.wrap(CONTENT, position, count));
+        });
+    }
+
+    private MvcResult request(String fileName, boolean cached, String range) throws Exception {
+        serve(fileName, cached);
+        var request = get("/file/{fileName}", fileName);
+        if (range != null) {
+            request.header(HttpHeaders.RANGE, range);
+        }
+        return mockMvc.perform(request).andReturn();
+    }
+
+    @Test
+    void singleRangeIsServedAsPartialContent() throws Exception {
+        for (boolean cached : List.of(true, false)) {
+            MvcResult result = request(POSTER, cached, "bytes=2-5");
+
+            assertThat(result.getResponse().getStatus()).as("cached=%s", cached).isEqualTo(206);
+            assertThat(result.getResponse().getHeader(HttpHeaders.CONTENT_RANGE)).isEqualTo("bytes 2-5/10");
+            assertThat(result.getResponse().getContentLengthLong()).isEqualTo(4);
+            assertThat(result.getResponse().getContentAsString()).isEqualTo("2345");
+        }
+    }
+
+    @Test
+    void suffixRangeServesTheLastBytes() throws Exception {
+        for (boolean cached : List.of(true, false)) {
+            MvcResult result = request(POSTER, cached, "bytes=-3");
+
+            assertThat(result.getResponse().getStatus()).as("cached=%s", cached).isEqualTo(206);
+            assertThat(result.getResponse().getHeader(HttpHeaders.CONTENT_RANGE)).isEqualTo("bytes 7-9/10");
+            assertThat(result.getResponse().getContentAsString()).isEqualTo("789");
+        }
+    }
+
+    @Test
+    void rangeEndPastTheFileIsClamped() throws Exception {
+        for (boolean cached : List.of(true, false)) {
+            MvcResult result = request(POSTER, cached, "bytes=8-100");
+
+            assertThat(result.getResponse().getStatus()).as("cached=%s", cached).isEqualTo(206);
+            assertThat(result.getResponse().getHeader(HttpHeaders.CONTENT_RANGE)).isEqualTo("bytes 8-9/10");
+            assertThat(result.getResponse().getContentAsString()).isEqualTo("89");
+        }
+    }
+
+    @Test
+    void unsatisfiableRangeIsAnswered416WithTheLength() throws Exception {
+        for (boolean cached : List.of(true, false)) {
+            MvcResult result = request(POSTER, cached, "bytes=10-20");
+
+            assertThat(result.getResponse().getStatus()).as("cached=%s", cached).isEqualTo(416);
+            assertThat(result.getResponse().getHeader(HttpHeaders.CONTENT_RANGE)).isEqualTo("bytes */10");
+            assertThat(result.getResponse().getContentAsByteArray()).isEmpty();
+        }
+    }
+
+    @Test
+    void multipleRangesFallBackToTheWholeFile() throws Exception {
+        for (boolean cached : List.of(true, false)) {
+            MvcResult result = request(POSTER, cached, "bytes=0-1,4-5");
+
+            assertThat(result.getResponse().getStatus()).as("cached=%s", cached).isEqualTo(200);
+            assertThat(result.getResponse().getHeader(HttpHeaders.CONTENT_RANGE)).isNull();
+            assertThat(result.getResponse().getHeader(HttpHeaders.ACCEPT_RANGES)).isEqualTo("bytes");
+            assertThat(result.getResponse().getContentAsByteArray()).isEqualTo(CONTENT);
+        }
+    }
+
+    @Test
+    void contentTypeComesFromTheExtension() throws Exception {
+        for (boolean cached : List.of(true, false)) {
+            MvcResult result = request(POSTER, cached, null);
+
+            assertThat(result.getResponse().getStatus()).as("cached=%s", cached).isEqualTo(200);
+            assertThat(result.getResponse().getContentType()).isEqualTo("image/png");
+        }
+    }
+
+    @Test
+    void contentTypeWithoutExtensionComesFromTheStoredMetadata() throws Exception {
+        String withoutExtension = "b".repeat(64);
+        for (boolean cached : List.of(true, false)) {
+            serve(withoutExtension, cached);
+            when(fileService.getMimeType(withoutExtension)).thenReturn(Optional.of("image/jpeg"));
+
+            MvcResult result = mockMvc.perform(get("/file/{fileName}", withoutExtension)).andReturn();
+
+            assertThat(result.getResponse().getContentType()).as("cached=%s", cached).isEqualTo("image/jpeg");
+            assertThat(result.getResponse().getContentAsByteArray()).isEqualTo(CONTENT);
+        }
+    }
+
+    @Test
+    void contentTypeWithoutExtensionOrMetadataIsOctetStream() throws Exception {
+        String withoutExtension = "b".repeat(64);
+        for (boolean cached : List.of(true, false)) {
+            MvcResult result = request(withoutExtension, cached, null);
+
+            assertThat(result.getResponse().getContentType()).as("cached=%s", cached).isEqualTo("application/octet-stream");
+        }
+    }
+}
@@ -0,0 +1,132 @@
+package com.maxi.movieapi.controllers;
+
+import com.maxi.movieapi.service.FileService;
+import com.maxi.movieapi.service.PosterVariantService;
+import com.maxi.movieapi.service.impl.PosterCache;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.convert.ApplicationConversionService;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.core.convert.ConversionService;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+import org.springframework.security.access.AccessDeniedException;
+import org.springframework.security.authentication.AnonymousAuthenticationToken;
+import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+import org.springframework.security.config.annotation.method.configuration.EnableMethodSecurity;
+import org.springframework.security.core.authority.AuthorityUtils;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.test.context.TestPropertySource;
+import org.springframework.test.context.junit.jupiter.SpringJUnitConfig;
+import org.springframework.web.context.request.ServletWebRequest;
+
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.reset;
+import static org.mockito.Mockito.verifyNoInteractions;
+import static org.mockito.Mockito.when;
+
+/**
+ * Verifica que un póster en caché no se sirva sin el rol de usuario: {@code /file/**} es pública en la cadena
+ * de filtros y un acierto de la caché no pasa por los métodos protegidos de {@link FileService}.
+ */
+@SpringJUnitConfig
+@TestPropertySource(properties = "spring.servlet.multipart.max-file-size=10MB")
+class FileControllerSecurityTests {
+
+    private static final String POSTER = "a".repeat(64) + ".png";
+
+    @Configuration
+    @EnableMethodSecurity
+    static class Config {
+
+        @Bean
+        static ConversionService conversionService() {
+            return ApplicationConversionService.getSharedInstance();
+        }
+
+        @Bean
+        FileService fileService() {
+            return mock(FileService.class);
+        }
+
+        @Bean
+        PosterVariantService posterVariantService() {
+            return mock(PosterVariantService.class);
+        }
+
+        @Bean
+        PosterCache posterCache() {
+            return mock(PosterCache.class);
+        }
+
+        @Bean
+        FileController fileController(FileService fileService, PosterVariantService posterVariantService, PosterCache posterCache) {
+            return new FileController(fileService, posterVariantService, posterCache);
+        }
+    }
+
+    @Autowired
+    private FileController fileController;
+
+    @Autowired
+    private FileService fileService;
+
+    @Autowired
+    private PosterCache posterCache;
+
+    @BeforeEach
+    void setUp() {
+        reset(fileService, posterCache);
+        when(posterCache.get(anyString())).thenReturn(ByteBuffer.wrap("poster".getBytes(StandardCharsets.UTF_8)));
+    }
+
+    @AfterEach
+    void tearDown() {
+        SecurityContextHolder.clearContext();
+    }
+
+    @Test
+    void anonymousRequestCannotReadCachedPoster() {
+        SecurityContextHolder.getContext().setAuthentication(new AnonymousAuthenticationToken(
+                "key", "anonymousUser", AuthorityUtils.createAuthorityList("ROLE_ANONYMOUS")));
+        MockHttpServletRequest request = new MockHttpServletRequest("GET", "/file/" + POSTER);
+        MockHttpServletResponse response = new MockHttpServletResponse();
+
+        assertThatThrownBy(() -> fileController.serverFileHandler(POSTER, "original", null,
+                new ServletWebRequest(request, response), response))
+                .isInstanceOf(AccessDeniedException.class);
+        assertThat(response.getContentAsByteArray()).isEmpty();
+    }
+
+    @Test
+    void anonymousRequestCannotReadVariantStatus() {
+        SecurityContextHolder.getContext().setAuthentication(new AnonymousAuthenticationToken(
+                "key", "anonymousUser", AuthorityUtils.createAuthorityList("ROLE_ANONYMOUS")));
+
+        assertThatThrownBy(() -> fileController.variantStatusHandler(POSTER))
+                .isInstanceOf(AccessDeniedException.class);
+    }
+
+    @Test
+    void userReadsCachedPosterWithoutTouchingStorage() throws Exception {
+        SecurityContextHolder.getContext().setAuthentication(new UsernamePasswordAuthenticationToken(
+                "user@example.com", null, AuthorityUtils.createAuthorityList("ROLE_USER")));
+        MockHttpServletRequest request = new MockHttpServletRequest("GET", "/file/" + POSTER);
+        MockHttpServletResponse response = new MockHttpServletResponse();
+
+        fileController.serverFileHandler(POSTER, "original", null, new ServletWebRequest(request, response), response);
+
+        assertThat(response.getContentAsString()).isEqualTo("poster");
+        assertThat(response.getHeader("Cache-Control")).startsWith("private");
+        verifyNoInteractions(fileService);
+    }
+}
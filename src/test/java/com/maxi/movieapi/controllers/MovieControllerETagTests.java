@@ -0,0 +1,137 @@
+package com.maxi.movieapi.controllers;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.maxi.movieapi.dto.MovieDto;
+import com.maxi.movieapi.dto.MoviePageResponseDto;
+import com.maxi.movieapi.service.MovieExportService;
+import com.maxi.movieapi.service.MovieFacetService;
+import com.maxi.movieapi.service.MovieImportService;
+import com.maxi.movieapi.service.MovieSearchService;
+import com.maxi.movieapi.service.MovieService;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+import org.springframework.web.context.request.ServletWebRequest;
+
+import java.time.Instant;
+import java.util.List;
+import java.util.Optional;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+class MovieControllerETagTests {
+
+    private MovieService movieService;
+    private MovieController movieController;
+
+    @BeforeEach
+    void setUp() {
+        movieService = mock(MovieService.class);
+        movieController = new MovieController(movieService, mock(MovieSearchService.class),
+                mock(MovieFacetService.class), mock(MovieImportService.class), mock(MovieExportService.class),
+                new ObjectMapper());
+        when(movieService.getAllMoviesBySlice(0, 10))
+                .thenReturn(new MoviePageResponseDto(List.of(), 0, 10, 0, 0, true, null));
+    }
+
+    private static ServletWebRequest request(String ifNoneMatch) {
+        MockHttpServletRequest request = new MockHttpServletRequest("GET", "/api/v1/movies/paginate");
+        if (ifNoneMatch != null) {
+            request.addHeader("If-None-Match", ifNoneMatch);
+        }
+        return new ServletWebRequest(request, new MockHttpServletResponse());
+    }
+
+    @Test
+    void pageIsRevalidatedWhileTheCatalogVersionIsUnchanged() {
+        when(movieService.getCatalogVersion()).thenReturn(5L);
+        ResponseEntity<?> first = movieController.getAllMoviesByPage(0, 10, true, request(null));
+
+        ResponseEntity<?> second = movieController.getAllMoviesByPage(0, 10, true, request(first.getHeaders().getETag()));
+
+        assertThat(first.getStatusCode()).isEqualTo(HttpStatus.OK);
+        assertThat(second.getStatusCode()).isEqualTo(HttpStatus.NOT_MODIFIED);
+        verify(movieService).getAllMoviesBySlice(0, 10);
+    }
+
+    @Test
+    void newCatalogVersionServesAFreshPage() {
+        when(movieService.getCatalogVersion()).thenReturn(5L, 6L);
+        ResponseEntity<?> first = movieController.getAllMoviesByPage(0, 10, true, request(null));
+
+        ResponseEntity<?> second = movieController.getAllMoviesByPage(0, 10, true, request(first.getHeaders().getETag()));
+
+        assertThat(second.getStatusCode()).isEqualTo(HttpStatus.OK);
+        assertThat(second.getHeaders().getETag()).isNotEqualTo(first.getHeaders().getETag());
+    }
+
+    @Test
+    void differentPagesHaveDifferentETags() {
+        when(movieService.getCatalogVersion()).thenReturn(5L);
+        when(movieService.getAllMoviesBySlice(1, 10))
+                .thenReturn(new MoviePageResponseDto(List.of(), 1, 10, 0, 0, true, null));
+
+        ResponseEntity<?> first = movieController.getAllMoviesByPage(0, 10, true, request(null));
+        ResponseEntity<?> second = movieController.getAllMoviesByPage(1, 10, true, request(first.getHeaders().getETag()));
+
+        assertThat(second.getStatusCode()).isEqualTo(HttpStatus.OK);
+        assertThat(second.getHeaders().getETag()).isNotEqualTo(first.getHeaders().getETag());
+    }
+
+    @Test
+    void sortParametersThatCouldCollideHaveDifferentETags() {
+        when(movieService.getCatalogVersion()).thenReturn(5L);
+
+        // Con los parámetros concatenados sin separar, "a, b" + "ASC" y "a" + "b, ASC" se codificarían igual
+        String first = movieController.getAllMoviesByPageSort(0, 10, "a, b", "ASC", false, request(null))
+                .getHeaders().getETag();
+        String second = movieController.getAllMoviesByPageSort(0, 10, "a", "b, ASC", false, request(null))
+                .getHeaders().getETag();
+
+        assertThat(first).isNotEqualTo(second);
+    }
+
+    @Test
+    void sortDirectionIsNormalisedLikeTheService() {
+        when(movieService.getCatalogVersion()).thenReturn(5L);
+
+        String asc = movieController.getAllMoviesByPageSort(0, 10, "title", "asc", false, request(null))
+                .getHeaders().getETag();
+        ResponseEntity<?> revalidated = movieController.getAllMoviesByPageSort(0, 10, "title", "ASC", false, request(asc));
+        String desc = movieController.getAllMoviesByPageSort(0, 10, "title", "desc", false, request(null))
+                .getHeaders().getETag();
+        String other = movieController.getAllMoviesByPageSort(0, 10, "title", "anything", false, request(null))
+                .getHeaders().getETag();
+
+        assertThat(revalidated.getStatusCode()).isEqualTo(HttpStatus.NOT_MODIFIED);
+        assertThat(desc).isNotEqualTo(asc).isEqualTo(other);
+    }
+
+    @Test
+    void movieIsRevalidatedAgainstItsVersion() {
+        MovieDto movie = MovieDto.builder().id(1L).version(3L).lastModified(Instant.parse("2024-01-01T00:00:00Z")).build();
+        when(movieService.getMovieById(1L)).thenReturn(Optional.of(movie));
+
+        ResponseEntity<MovieDto> first = movieController.getMovieById(1L, request(null));
+        ResponseEntity<MovieDto> second = movieController.getMovieById(1L, request(first.getHeaders().getETag()));
+
+        assertThat(first.getBody()).isSameAs(movie);
+        assertThat(second.getStatusCode()).isEqualTo(HttpStatus.NOT_MODIFIED);
+        assertThat(second.getBody()).isNull();
+        assertThat(first.getHeaders().getETag()).isEqualTo("\"m1-3\"");
+
+        // Una versión nueva de la película invalida el ETag anterior
+        MovieDto updated = MovieDto.builder().id(1L).version(4L).lastModified(Instant.parse("2024-01-02T00:00:00Z")).build();
+        when(movieService.getMovieById(1L)).thenReturn(Optional.of(updated));
+        ResponseEntity<MovieDto> third = movieController.getMovieById(1L, request(first.getHeaders().getETag()));
+
+        assertThat(third.getStatusCode()).isEqualTo(HttpStatus.OK);
+        assertThat(third.getBody()).isSameAs(updated);
+    }
+}
@@ -0,0 +1,158 @@
+package com.maxi.movieapi.security.config;
+
+import com.maxi.movieapi.exceptions.GlobalExceptionHandler;
+import com.maxi.movieapi.exceptions.PasswordHashingUnavailableException;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.http.HttpHeaders;
+import org.springframework.security.crypto.password.PasswordEncoder;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.setup.MockMvcBuilders;
+import org.springframework.web.bind.annotation.PostMapping;
+import org.springframework.web.bind.annotation.RestController;
+
+import java.time.Duration;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.function.BooleanSupplier;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.header;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+/**
+ * Pool de un hilo con cola de uno y un delegado que se bloquea hasta que la prueba lo libera:
+ * la primera solicitud ocupa el hilo, la segunda la cola y la tercera se rechaza.
+ */
+class OffloadingPasswordEncoderTests {
+
+    private final MeterRegistry meterRegistry = new SimpleMeterRegistry();
+    private final CountDownLatch release = new CountDownLatch(1);
+    private OffloadingPasswordEncoder encoder;
+
+    private final PasswordEncoder blockingDelegate = new PasswordEncoder() {
+        @Override
+        public String encode(CharSequence rawPassword) {
+            try {
+                release.await();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+            return "hashed:" + rawPassword;
+        }
+
+        @Override
+        public boolean matches(CharSequence rawPassword, String encodedPassword) {
+            return encode(rawPassword).equals(encodedPassword);
+        }
+    };
+
+    @AfterEach
+    void tearDown() {
+        release.countDown();
+        encoder.shutdown();
+    }
+
+    private static void await(BooleanSupplier condition) throws InterruptedException {
+        long deadline = System.nanoTime() + Duration.ofSeconds(10).toNanos();
+        while (!condition.getAsBoolean()) {
+            assertThat(System.nanoTime()).as("condition not met in time").isLessThan(deadline);
+            Thread.sleep(10);
+        }
+    }
+
+    private double queueSize() {
+        return meterRegistry.get("security.password.queue.size").gauge().value();
+    }
+
+    private double activeThreads() {
+        return meterRegistry.get("security.password.active").gauge().value();
+    }
+
+    private double rejections() {
+        return meterRegistry.get("security.password.rejected").counter().count();
+    }
+
+    // Ocupa el hilo y la cola del pool con dos solicitudes que quedan esperando al delegado
+    private void saturate() throws InterruptedException {
+        CompletableFuture.runAsync(() -> encoder.encode("first"));
+        await(() -> activeThreads() == 1);
+        CompletableFuture.runAsync(() -> encoder.encode("second"));
+        await(() -> queueSize() == 1);
+    }
+
+    @Test
+    void fullQueueIsRejectedAndCounted() throws InterruptedException {
+        encoder = new OffloadingPasswordEncoder(blockingDelegate, 1, 1, Duration.ofSeconds(10), meterRegistry);
+        saturate();
+
+        assertThatThrownBy(() -> encoder.encode("third")).isInstanceOf(PasswordHashingUnavailableException.class);
+        assertThat(rejections()).isEqualTo(1);
+        assertThat(queueSize()).isEqualTo(1);
+    }
+
+    @Test
+    void fullQueueIsAnsweredWith503AndRetryAfter() throws Exception {
+        encoder = new OffloadingPasswordEncoder(blockingDelegate, 1, 1, Duration.ofSeconds(10), meterRegistry);
+        GlobalExceptionHandler exceptionHandler = new GlobalExceptionHandler();
+        ReflectionTestUtils.setField(exceptionHandler, "passwordHashingRetryAfterSeconds", 3);
+        MockMvc mockMvc = MockMvcBuilders.standaloneSetup(new HashingController(encoder))
+                .setControllerAdvice(exceptionHandler)
+                .build();
+        saturate();
+
+        mockMvc.perform(post("/hash"))
+                .andExpect(status().isServiceUnavailable())
+                .andExpect(header().string(HttpHeaders.RETRY_AFTER, "3"));
+    }
+
+    @Test
+    void resultNotReadyInTimeIsRejectedAndCounted() {
+        encoder = new OffloadingPasswordEncoder(blockingDelegate, 1, 1, Duration.ofMillis(100), meterRegistry);
+
+        assertThatThrownBy(() -> encoder.matches("secret", "hashed:secret"))
+                .isInstanceOf(PasswordHashingUnavailableException.class);
+        assertThat(rejections()).isEqualTo(1);
+    }
+
+    @Test
+    void waitTimeIsMeasuredFromSubmitToStart() throws Exception {
+        encoder = new OffloadingPasswordEncoder(blockingDelegate, 1, 1, Duration.ofSeconds(10), meterRegistry);
+        CompletableFuture<String> first = CompletableFuture.supplyAsync(() -> encoder.encode("first"));
+        await(() -> activeThreads() == 1);
+        CompletableFuture<String> second = CompletableFuture.supplyAsync(() -> encoder.encode("second"));
+        await(() -> queueSize() == 1);
+
+        Thread.sleep(100);
+        release.countDown();
+
+        assertThat(first.get(10, TimeUnit.SECONDS)).isEqualTo("hashed:first");
+        assertThat(second.get(10, TimeUnit.SECONDS)).isEqualTo("hashed:second");
+        // La segunda solicitud esperó en la cola mientras la primera ocupaba el hilo
+        var waitTimer = meterRegistry.get("security.password.wait").timer();
+        assertThat(waitTimer.count()).isEqualTo(2);
+        assertThat(waitTimer.max(TimeUnit.MILLISECONDS)).isGreaterThanOrEqualTo(100);
+        assertThat(meterRegistry.get("security.password.hash").tag("operation", "encode").timer().count()).isEqualTo(2);
+    }
+
+    @RestController
+    static class HashingController {
+
+        private final PasswordEncoder passwordEncoder;
+
+        HashingController(PasswordEncoder passwordEncoder) {
+            this.passwordEncoder = passwordEncoder;
+        }
+
+        @PostMapping("/hash")
+        String hash() {
+            return passwordEncoder.encode("secret");
+        }
+    }
+}
@@ -0,0 +1,106 @@
+package com.maxi.movieapi.security.service;
+
+import com.maxi.movieapi.security.repository.ForgotPasswordRepository;
+import com.maxi.movieapi.security.repository.RefreshTokenRepository;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.transaction.PlatformTransactionManager;
+
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+class ExpiredCredentialsSweeperTests {
+
+    private static final int BATCH_SIZE = 2;
+    private static final int MAX_BATCHES = 3;
+
+    private RefreshTokenRepository refreshTokenRepository;
+    private ForgotPasswordRepository forgotPasswordRepository;
+    private PlatformTransactionManager transactionManager;
+    private SimpleMeterRegistry meterRegistry;
+    private ExpiredCredentialsSweeper sweeper;
+
+    @BeforeEach
+    void setUp() {
+        refreshTokenRepository = mock(RefreshTokenRepository.class);
+        forgotPasswordRepository = mock(ForgotPasswordRepository.class);
+        transactionManager = mock(PlatformTransactionManager.class);
+        meterRegistry = new SimpleMeterRegistry();
+        sweeper = new ExpiredCredentialsSweeper(refreshTokenRepository, forgotPasswordRepository, transactionManager,
+                BATCH_SIZE, MAX_BATCHES, meterRegistry);
+        when(refreshTokenRepository.findExpiredIds(any(), any())).thenReturn(List.of());
+        when(forgotPasswordRepository.findExpiredIds(any(), any())).thenReturn(List.of());
+    }
+
+    private double deleted(String table) {
+        return meterRegistry.get("security.sweeper.deleted").tag("table", table).counter().count();
+    }
+
+    @Test
+    void deletesBatchesUntilOneComesIncomplete() {
+        when(refreshTokenRepository.findExpiredIds(any(), any()))
+                .thenReturn(List.of(1L, 2L), List.of(3L, 4L), List.of(5L), List.of());
+
+        sweeper.sweep();
+
+        verify(refreshTokenRepository).deleteAllByIdInBatch(List.of(1L, 2L));
+        verify(refreshTokenRepository).deleteAllByIdInBatch(List.of(3L, 4L));
+        verify(refreshTokenRepository).deleteAllByIdInBatch(List.of(5L));
+        // Cada lote vuelve a pedir la primera página: las filas del lote anterior ya no existen
+        verify(refreshTokenRepository, times(3)).findExpiredIds(any(), eq(PageRequest.of(0, BATCH_SIZE)));
+        assertThat(deleted("refresh_tokens")).isEqualTo(5);
+    }
+
+    @Test
+    void stopsAtTheMaximumBatchesPerRun() {
+        when(forgotPasswordRepository.findExpiredIds(any(), any())).thenReturn(List.of(1, 2));
+
+        sweeper.sweep();
+
+        verify(forgotPasswordRepository, times(MAX_BATCHES)).deleteAllByIdInBatch(List.of(1, 2));
+        assertThat(deleted("forgot_password")).isEqualTo(MAX_BATCHES * BATCH_SIZE);
+    }
+
+    @Test
+    void eachBatchRunsInItsOwnTransaction() {
+        when(refreshTokenRepository.findExpiredIds(any(), any())).thenReturn(List.of(1L, 2L), List.of(3L));
+
+        sweeper.sweep();
+
+        // Dos lotes de refresh tokens y uno vacío de OTPs
+        verify(transactionManager, times(3)).getTransaction(any());
+        verify(transactionManager, times(3)).commit(any());
+    }
+
+    @Test
+    void emptyTablesAreNotDeletedFrom() {
+        sweeper.sweep();
+
+        verify(refreshTokenRepository, never()).deleteAllByIdInBatch(any());
+        verify(forgotPasswordRepository, never()).deleteAllByIdInBatch(any());
+        assertThat(deleted("refresh_tokens")).isZero();
+    }
+
+    @Test
+    void failedSweepIsLoggedAndRetriedOnTheNextRun() {
+        when(refreshTokenRepository.findExpiredIds(any(), any()))
+                .thenThrow(new IllegalStateException("database down"))
+                .thenReturn(List.of(1L));
+
+        sweeper.sweep();
+        sweeper.sweep();
+
+        verify(refreshTokenRepository).deleteAllByIdInBatch(List.of(1L));
+        assertThat(deleted("refresh_tokens")).isEqualTo(1);
+    }
+}
@@ -0,0 +1,101 @@
+package com.maxi.movieapi.security.service;
+
+import io.jsonwebtoken.ExpiredJwtException;
+import io.jsonwebtoken.JwtException;
+import io.jsonwebtoken.Jwts;
+import io.jsonwebtoken.SignatureAlgorithm;
+import io.jsonwebtoken.io.Decoders;
+import io.jsonwebtoken.security.Keys;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.security.core.authority.SimpleGrantedAuthority;
+
+import java.security.Key;
+import java.util.Date;
+import java.util.List;
+import java.util.Map;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class JwtServiceTests {
+
+    private static final Key KEY = Keys.hmacShaKeyFor(Decoders.BASE64.decode("BF7FD11ACE545745B7BA1AF98B6F156D127BC7BB544BAB6A4FD74E4FC7"));
+
+    private SimpleMeterRegistry meterRegistry;
+    private JwtService jwtService;
+
+    @BeforeEach
+    void setUp() {
+        meterRegistry = new SimpleMeterRegistry();
+        jwtService = new JwtService(100, meterRegistry);
+    }
+
+    private static String token(Date expiration, Key key) {
+        long now = System.currentTimeMillis();
+        return Jwts.builder()
+                .setClaims(Map.of("role", List.of(Map.of("authority", "ROLE_USER"))))
+                .setSubject("user@mail.com")
+                .setIssuedAt(new Date(now))
+                .setExpiration(expiration)
+                .signWith(key, SignatureAlgorithm.HS256)
+                .compact();
+    }
+
+    private double cacheGets(String result) {
+        return meterRegistry.get("cache.gets").tag("cache", "jwt.verified-tokens").tag("result", result)
+                .functionCounter().count();
+    }
+
+    @Test
+    void verifiesTokenOnceAndServesItFromTheCache() {
+        String token = jwtService.generateToken("user@mail.com", List.of(new SimpleGrantedAuthority("ROLE_USER")));
+
+        VerifiedToken first = jwtService.verify(token);
+        VerifiedToken second = jwtService.verify(token);
+
+        assertThat(second).isSameAs(first);
+        assertThat(first.subject()).isEqualTo("user@mail.com");
+        assertThat(first.roles()).containsExactly("ROLE_USER");
+        assertThat(cacheGets("hit")).isEqualTo(1);
+    }
+
+    @Test
+    void cachedTokenIsRejectedOnceItExpires() throws InterruptedException {
+        // El claim "exp" tiene precisión de segundos
+        Date expiration = new Date((System.currentTimeMillis() / 1000 + 2) * 1000);
+        String token = token(expiration, KEY);
+        jwtService.verify(token);
+
+        Thread.sleep(expiration.getTime() - System.currentTimeMillis() + 50);
+
+        assertThatThrownBy(() -> jwtService.verify(token)).isInstanceOf(ExpiredJwtException.class);
+        assertThatThrownBy(() -> jwtService.verify(token)).isInstanceOf(ExpiredJwtException.class);
+    }
+
+    @Test
+    void expiredTokenIsRejectedAndNotCached() {
+        String token = token(new Date(System.currentTimeMillis() - 60_000), KEY);
+
+        assertThatThrownBy(() -> jwtService.verify(token)).isInstanceOf(ExpiredJwtException.class);
+        assertThatThrownBy(() -> jwtService.verify(token)).isInstanceOf(ExpiredJwtException.class);
+        assertThat(cacheGets("hit")).isZero();
+    }
+
+    @Test
+    void tokenWithoutExpirationIsRejected() {
+        String token = token(null, KEY);
+
+        assertThatThrownBy(() -> jwtService.verify(token)).isInstanceOf(JwtException.class);
+        assertThat(cacheGets("hit")).isZero();
+    }
+
+    @Test
+    void tokenSignedWithAnotherKeyIsRejected() {
+        Key otherKey = Keys.secretKeyFor(SignatureAlgorithm.HS256);
+        String token = token(new Date(System.currentTimeMillis() + 60_000), otherKey);
+
+        assertThatThrownBy(() -> jwtService.verify(token)).isInstanceOf(JwtException.class);
+    }
+}
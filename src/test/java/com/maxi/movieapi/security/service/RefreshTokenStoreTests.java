@@ -0,0 +1,174 @@
+package com.maxi.movieapi.security.service;
+
+import com.maxi.movieapi.security.entities.RefreshToken;
+import com.maxi.movieapi.security.repository.RefreshTokenRepository;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import jakarta.persistence.EntityManager;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.transaction.PlatformTransactionManager;
+
+import java.time.Instant;
+import java.util.List;
+import java.util.Set;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.argThat;
+import static org.mockito.Mockito.doThrow;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.timeout;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.verifyNoInteractions;
+import static org.mockito.Mockito.when;
+
+class RefreshTokenStoreTests {
+
+    private RefreshTokenRepository refreshTokenRepository;
+    private PlatformTransactionManager transactionManager;
+    private EntityManager entityManager;
+    private RefreshTokenStore refreshTokenStore;
+
+    @BeforeEach
+    void setUp() {
+        refreshTokenRepository = mock(RefreshTokenRepository.class);
+        transactionManager = mock(PlatformTransactionManager.class);
+        entityManager = mock(EntityManager.class);
+        refreshTokenStore = new RefreshTokenStore(refreshTokenRepository, transactionManager, new SimpleMeterRegistry(), 1000);
+        ReflectionTestUtils.setField(refreshTokenStore, "entityManager", entityManager);
+    }
+
+    private static IssuedRefreshToken token(String value, String email, int userId) {
+        return new IssuedRefreshToken(value, email, userId, Instant.now().plusSeconds(3600));
+    }
+
+    @Test
+    void removeByEmailRevokesTheUserTokenAndPersistsTheRemoval() {
+        refreshTokenStore.save(token("token-1", "user@mail.com", 1));
+        refreshTokenStore.save(token("token-2", "other@mail.com", 2));
+        refreshTokenStore.flush();
+
+        refreshTokenStore.removeByEmail("user@mail.com");
+        refreshTokenStore.flush();
+
+        assertThat(refreshTokenStore.findByToken("token-1")).isEmpty();
+        assertThat(refreshTokenStore.findByEmail("user@mail.com")).isEmpty();
+        assertThat(refreshTokenStore.findByToken("token-2")).isPresent();
+        verify(refreshTokenRepository).deleteAllByUserIds(Set.of(1));
+    }
+
+    @Test
+    void removeByEmailWithoutTokenDoesNothing() {
+        refreshTokenStore.removeByEmail("user@mail.com");
+
+        assertThat(refreshTokenStore.findByEmail("user@mail.com")).isEmpty();
+    }
+
+    @Test
+    void flushPersistsOnlyTheLatestTokenOfEachUser() {
+        refreshTokenStore.save(token("token-1", "user@mail.com", 1));
+        refreshTokenStore.save(token("token-2", "user@mail.com", 1));
+
+        refreshTokenStore.flush();
+
+        ArgumentCaptor<RefreshToken> persisted = ArgumentCaptor.forClass(RefreshToken.class);
+        verify(entityManager).persist(persisted.capture());
+        assertThat(persisted.getAllValues()).extracting(RefreshToken::getRefreshToken).containsExactly("token-2");
+        verify(refreshTokenRepository).deleteAllByUserIds(Set.of(1));
+        assertThat(refreshTokenStore.findByToken("token-1")).isEmpty();
+    }
+
+    @Test
+    void flushWithoutPendingChangesDoesNotTouchTheDatabase() {
+        refreshTokenStore.flush();
+
+        verifyNoInteractions(refreshTokenRepository, transactionManager);
+    }
+
+    @Test
+    void failedFlushIsRetriedWithoutOverwritingNewerChanges() {
+        doThrow(new IllegalStateException("database down")).doNothing()
+                .when(refreshTokenRepository).deleteAllByUserIds(any());
+        refreshTokenStore.save(token("token-1", "user@mail.com", 1));
+        refreshTokenStore.save(token("token-2", "other@mail.com", 2));
+        refreshTokenStore.flush();
+
+        // Un cambio posterior del usuario 1 reemplaza al que no se pudo escribir
+        refreshTokenStore.save(token("token-3", "user@mail.com", 1));
+        refreshTokenStore.flush();
+
+        ArgumentCaptor<RefreshToken> persisted = ArgumentCaptor.forClass(RefreshToken.class);
+        verify(entityManager, times(2)).persist(persisted.capture());
+        assertThat(persisted.getAllValues()).extracting(RefreshToken::getRefreshToken)
+                .containsExactlyInAnyOrder("token-3", "token-2");
+    }
+
+    @Test
+    void rejectedChangeIsRetriedPerUserAndDroppedAfterMaxAttempts() {
+        // El usuario 1 fue eliminado: cualquier escritura que lo incluya viola la clave foránea
+        doThrow(new DataIntegrityViolationException("fk_refresh_tokens_user"))
+                .when(refreshTokenRepository).deleteAllByUserIds(argThat(ids -> ids.contains(1)));
+        refreshTokenStore.save(token("token-1", "deleted@mail.com", 1));
+        refreshTokenStore.save(token("token-2", "other@mail.com", 2));
+
+        refreshTokenStore.flush();
+
+        // El usuario 2 se persiste en el reintento individual, sin esperar al usuario 1
+        ArgumentCaptor<RefreshToken> persisted = ArgumentCaptor.forClass(RefreshToken.class);
+        verify(entityManager).persist(persisted.capture());
+        assertThat(persisted.getValue().getRefreshToken()).isEqualTo("token-2");
+
+        for (int attempt = 1; attempt < RefreshTokenStore.MAX_ATTEMPTS; attempt++) {
+            refreshTokenStore.flush();
+        }
+        refreshTokenStore.flush();
+
+        // Lote inicial, reintento individual y un intento por cada flush siguiente hasta descartarlo
+        verify(refreshTokenRepository, times(RefreshTokenStore.MAX_ATTEMPTS + 1))
+                .deleteAllByUserIds(argThat(ids -> ids.contains(1)));
+    }
+
+    @Test
+    void startedStoreFlushesOnItsOwnThread() throws InterruptedException {
+        RefreshTokenStore scheduled = new RefreshTokenStore(refreshTokenRepository, transactionManager,
+                new SimpleMeterRegistry(), 50);
+        ReflectionTestUtils.setField(scheduled, "entityManager", entityManager);
+        scheduled.start();
+        try {
+            scheduled.save(token("token-1", "user@mail.com", 1));
+
+            verify(refreshTokenRepository, timeout(5000)).deleteAllByUserIds(Set.of(1));
+        } finally {
+            scheduled.shutdown();
+        }
+    }
+
+    @Test
+    void loadIndexesTheActiveTokens() {
+        when(refreshTokenRepository.findAllActive(any())).thenReturn(List.of(token("token-1", "user@mail.com", 1)));
+
+        refreshTokenStore.load();
+
+        assertThat(refreshTokenStore.findByToken("token-1")).get().extracting(IssuedRefreshToken::email)
+                .isEqualTo("user@mail.com");
+        assertThat(refreshTokenStore.findByEmail("user@mail.com")).isPresent();
+    }
+
+    @Test
+    void expireDropsExpiredTokensScheduledInTheWheel() throws InterruptedException {
+        IssuedRefreshToken expiring = new IssuedRefreshToken("token-1", "user@mail.com", 1, Instant.now().plusMillis(100));
+        refreshTokenStore.save(expiring);
+        refreshTokenStore.save(token("token-2", "other@mail.com", 2));
+
+        // La rueda avanza de a un segundo
+        Thread.sleep(2100);
+        refreshTokenStore.expire();
+
+        assertThat(refreshTokenStore.findByToken("token-1")).isEmpty();
+        assertThat(refreshTokenStore.findByToken("token-2")).isPresent();
+    }
+}
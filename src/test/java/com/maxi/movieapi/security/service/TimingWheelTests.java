@@ -0,0 +1,93 @@
+package com.maxi.movieapi.security.service;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class TimingWheelTests {
+
+    @Test
+    void deliversEachKeyOnTheFirstAdvancePastItsDeadline() {
+        // Plazos repartidos en los cuatro niveles, con avances de tamaño variable
+        Random random = new Random(42);
+        TimingWheel<Integer> wheel = new TimingWheel<>(1, 0);
+        Map<Integer, Long> deadlines = new HashMap<>();
+        for (int key = 0; key < 2000; key++) {
+            long deadline = 1 + (long) Math.pow(random.nextDouble(), 4) * 2_000_000 + random.nextInt(100);
+            deadlines.put(key, deadline);
+            wheel.schedule(key, deadline);
+        }
+
+        long now = 0;
+        while (!deadlines.isEmpty()) {
+            now += 1 + random.nextInt(5000);
+            long advancedTo = now;
+            List<Integer> expired = new ArrayList<>();
+            wheel.advance(advancedTo, expired::add);
+            for (Integer key : expired) {
+                assertThat(deadlines.remove(key)).as("key %d", key).isNotNull().isLessThanOrEqualTo(advancedTo);
+            }
+            assertThat(deadlines.values()).allMatch(deadline -> deadline > advancedTo);
+        }
+        assertThat(wheel.size()).isZero();
+    }
+
+    @Test
+    void roundsDeadlinesUpToTheNextTick() {
+        TimingWheel<String> wheel = new TimingWheel<>(1000, 0);
+        wheel.schedule("token", 1500);
+        List<String> expired = new ArrayList<>();
+
+        wheel.advance(1999, expired::add);
+        assertThat(expired).isEmpty();
+
+        wheel.advance(2000, expired::add);
+        assertThat(expired).containsExactly("token");
+    }
+
+    @Test
+    void pastDeadlineIsDeliveredOnTheNextTick() {
+        TimingWheel<String> wheel = new TimingWheel<>(1000, 10_000);
+        wheel.schedule("token", 5_000);
+        List<String> expired = new ArrayList<>();
+
+        wheel.advance(11_000, expired::add);
+
+        assertThat(expired).containsExactly("token");
+    }
+
+    @Test
+    void deadlineBeyondTheWheelRangeIsRescheduledUntilDue() {
+        long range = 1L << 24;
+        TimingWheel<String> wheel = new TimingWheel<>(1, 0);
+        wheel.schedule("token", range * 2 + 10);
+        List<String> expired = new ArrayList<>();
+
+        wheel.advance(range * 2 + 9, expired::add);
+        assertThat(expired).isEmpty();
+        assertThat(wheel.size()).isEqualTo(1);
+
+        wheel.advance(range * 2 + 10, expired::add);
+        assertThat(expired).containsExactly("token");
+        assertThat(wheel.size()).isZero();
+    }
+
+    @Test
+    void sameKeyScheduledTwiceIsDeliveredTwice() {
+        // La rueda no cancela: quien la usa comprueba que la clave siga vencida
+        TimingWheel<String> wheel = new TimingWheel<>(1, 0);
+        wheel.schedule("token", 10);
+        wheel.schedule("token", 20);
+        List<String> expired = new ArrayList<>();
+
+        wheel.advance(20, expired::add);
+
+        assertThat(expired).containsExactly("token", "token");
+    }
+}
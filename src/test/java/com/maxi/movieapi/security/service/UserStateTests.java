@@ -0,0 +1,68 @@
+package com.maxi.movieapi.security.service;
+
+import com.maxi.movieapi.security.entities.UserRole;
+import org.junit.jupiter.api.Test;
+
+import java.time.Instant;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class UserStateTests {
+
+    private static final Instant CHANGED_AT = Instant.parse("2024-01-01T10:00:00.400Z");
+
+    private static VerifiedToken token(Instant issuedAt, String... roles) {
+        return new VerifiedToken("user@mail.com", List.of(roles), issuedAt, issuedAt == null ? null : issuedAt.plusSeconds(60));
+    }
+
+    @Test
+    void acceptsTokenWhenThePasswordWasNeverChanged() {
+        UserState state = new UserState("user@mail.com", UserRole.ROLE_USER, null);
+
+        assertThat(state.accepts(token(Instant.parse("2024-01-01T10:00:00Z"), "ROLE_USER"))).isTrue();
+    }
+
+    @Test
+    void rejectsTokenIssuedBeforeThePasswordChange() {
+        UserState state = new UserState("user@mail.com", UserRole.ROLE_USER, CHANGED_AT);
+
+        assertThat(state.accepts(token(Instant.parse("2024-01-01T09:59:59Z"), "ROLE_USER"))).isFalse();
+    }
+
+    @Test
+    void rejectsTokenIssuedInTheSameSecondAsThePasswordChange() {
+        // El "iat" se trunca al segundo: un token de las 10:00:00.100 llega como 10:00:00, igual que uno de las 10:00:00.900
+        UserState state = new UserState("user@mail.com", UserRole.ROLE_USER, CHANGED_AT);
+
+        assertThat(state.accepts(token(Instant.parse("2024-01-01T10:00:00Z"), "ROLE_USER"))).isFalse();
+    }
+
+    @Test
+    void acceptsTokenIssuedInTheFollowingSecond() {
+        UserState state = new UserState("user@mail.com", UserRole.ROLE_USER, CHANGED_AT);
+
+        assertThat(state.accepts(token(Instant.parse("2024-01-01T10:00:01Z"), "ROLE_USER"))).isTrue();
+    }
+
+    @Test
+    void acceptsTokenIssuedInTheSecondOfAChangeWithoutFraction() {
+        UserState state = new UserState("user@mail.com", UserRole.ROLE_USER, Instant.parse("2024-01-01T10:00:00Z"));
+
+        assertThat(state.accepts(token(Instant.parse("2024-01-01T10:00:00Z"), "ROLE_USER"))).isTrue();
+    }
+
+    @Test
+    void rejectsTokenWithoutIssuedAtOnceThePasswordChanged() {
+        UserState state = new UserState("user@mail.com", UserRole.ROLE_USER, CHANGED_AT);
+
+        assertThat(state.accepts(token(null, "ROLE_USER"))).isFalse();
+    }
+
+    @Test
+    void rejectsTokenWithAnOutdatedRole() {
+        UserState state = new UserState("user@mail.com", UserRole.ROLE_ADMIN, null);
+
+        assertThat(state.accepts(token(Instant.parse("2024-01-01T10:00:00Z"), "ROLE_USER"))).isFalse();
+    }
+}
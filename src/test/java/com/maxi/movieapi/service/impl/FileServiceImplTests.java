@@ -0,0 +1,120 @@
+package com.maxi.movieapi.service.impl;
+
+import com.maxi.movieapi.exceptions.FileTooLargeException;
+import com.maxi.movieapi.repository.MovieRepository;
+import com.maxi.movieapi.service.PosterVariantService;
+import com.maxi.movieapi.service.UploadedPoster;
+import com.maxi.movieapi.service.storage.InMemoryPosterStorage;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import javax.imageio.ImageIO;
+import java.awt.image.BufferedImage;
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.HexFormat;
+import java.util.List;
+import java.util.Random;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+class FileServiceImplTests {
+
+    private InMemoryPosterStorage posterStorage;
+    private PosterVariantService posterVariantService;
+    private MovieRepository movieRepository;
+    private FileServiceImpl fileService;
+
+    @BeforeEach
+    void setUp() {
+        posterStorage = new InMemoryPosterStorage();
+        posterVariantService = mock(PosterVariantService.class);
+        movieRepository = mock(MovieRepository.class);
+        fileService = new FileServiceImpl(posterStorage, posterVariantService, mock(PosterCache.class), movieRepository);
+    }
+
+    private static byte[] largePng() throws IOException {
+        BufferedImage image = new BufferedImage(1000, 1500, BufferedImage.TYPE_INT_RGB);
+        Random random = new Random(7);
+        for (int y = 0; y < image.getHeight(); y++) {
+            for (int x = 0; x < image.getWidth(); x++) {
+                image.setRGB(x, y, random.nextInt());
+            }
+        }
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        ImageIO.write(image, "png", out);
+        return out.toByteArray();
+    }
+
+    private static String sha256(byte[] content) throws NoSuchAlgorithmException {
+        return HexFormat.of().formatHex(MessageDigest.getInstance("SHA-256").digest(content));
+    }
+
+    @Test
+    void storesWholeImageAndReadsMetadataFromItsHeader() throws Exception {
+        byte[] png = largePng();
+
+        UploadedPoster uploaded = fileService.uploadFile(new ByteArrayInputStream(png), "Poster.PNG", Long.MAX_VALUE);
+
+        assertThat(uploaded.fileName()).isEqualTo(sha256(png) + ".png");
+        assertThat(uploaded.metadata().width()).isEqualTo(1000);
+        assertThat(uploaded.metadata().height()).isEqualTo(1500);
+        assertThat(uploaded.metadata().mimeType()).isEqualTo("image/png");
+        assertThat(uploaded.metadata().size()).isEqualTo(png.length);
+        // El color se calcula al generar las variantes, no durante la subida
+        assertThat(uploaded.metadata().placeholder()).isNull();
+        try (InputStream in = posterStorage.openStream(uploaded.fileName())) {
+            assertThat(in.readAllBytes()).isEqualTo(png);
+        }
+        verify(posterVariantService).scheduleVariants(uploaded.fileName());
+    }
+
+    @Test
+    void storesFilesThatAreNotImagesWithoutDimensions() throws IOException {
+        byte[] content = "not an image".getBytes(StandardCharsets.UTF_8);
+
+        UploadedPoster uploaded = fileService.uploadFile(new ByteArrayInputStream(content), "notes.txt", Long.MAX_VALUE);
+
+        assertThat(uploaded.metadata().width()).isNull();
+        assertThat(uploaded.metadata().size()).isEqualTo(content.length);
+        assertThat(posterStorage.exists(uploaded.fileName())).isTrue();
+    }
+
+    @Test
+    void sameContentIsStoredOnce() throws IOException {
+        byte[] content = "poster".getBytes(StandardCharsets.UTF_8);
+
+        String first = fileService.uploadFile(new ByteArrayInputStream(content), "a.png", Long.MAX_VALUE).fileName();
+        String second = fileService.uploadFile(new ByteArrayInputStream(content), "b.png", Long.MAX_VALUE).fileName();
+
+        assertThat(second).isEqualTo(first);
+        assertThat(posterStorage.list(null, 10)).hasSize(1);
+    }
+
+    @Test
+    void rejectsUploadOverTheLimitWithoutStoringIt() throws IOException {
+        byte[] png = largePng();
+
+        assertThatThrownBy(() -> fileService.uploadFile(new ByteArrayInputStream(png), "poster.png", png.length - 1))
+                .isInstanceOf(FileTooLargeException.class);
+        assertThat(posterStorage.list(null, 10)).isEmpty();
+    }
+
+    @Test
+    void mimeTypeOfAVariantIsTheOneStoredForItsOriginal() {
+        String original = "c".repeat(64);
+        when(movieRepository.findPosterMimeTypes(original)).thenReturn(List.of("image/gif"));
+
+        assertThat(fileService.getMimeType(original + "_small")).contains("image/gif");
+        assertThat(fileService.getMimeType("d".repeat(64))).isEmpty();
+    }
+}
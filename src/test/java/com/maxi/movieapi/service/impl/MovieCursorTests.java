@@ -0,0 +1,96 @@
+package com.maxi.movieapi.service.impl;
+
+import com.maxi.movieapi.entities.Movie;
+import org.junit.jupiter.api.Test;
+import org.springframework.data.domain.KeysetScrollPosition;
+import org.springframework.data.domain.ScrollPosition;
+import org.springframework.data.domain.Sort;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Base64;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.assertj.core.api.Assertions.entry;
+
+class MovieCursorTests {
+
+    private static Movie movie(Long id, String title, Integer releaseYear) {
+        return Movie.builder()
+                .id(id)
+                .title(title)
+                .director("Director")
+                .studio("Studio")
+                .releaseYear(releaseYear)
+                .build();
+    }
+
+    @Test
+    void encodeDecodeRoundTripsEverySortableField() {
+        Movie movie = movie(42L, "Alien", 1979);
+        for (String sortBy : MovieCursor.SORTABLE_FIELDS) {
+            MovieCursor cursor = MovieCursor.after(movie, sortBy, Sort.Direction.DESC);
+
+            assertThat(MovieCursor.decode(cursor.encode())).isEqualTo(cursor);
+        }
+    }
+
+    @Test
+    void releaseYearIsDecodedAsInteger() {
+        MovieCursor cursor = MovieCursor.decode(MovieCursor.after(movie(1L, "Alien", 1979), "releaseYear", Sort.Direction.ASC).encode());
+
+        assertThat(cursor.sortValue()).isEqualTo(1979);
+    }
+
+    @Test
+    void literalNullTitleIsNotConfusedWithNullKey() {
+        MovieCursor literal = MovieCursor.decode(MovieCursor.after(movie(1L, "null", 2000), "title", Sort.Direction.ASC).encode());
+        MovieCursor missing = MovieCursor.decode(MovieCursor.after(movie(1L, null, 2000), "title", Sort.Direction.ASC).encode());
+
+        assertThat(literal.sortValue()).isEqualTo("null");
+        assertThat(missing.sortValue()).isNull();
+    }
+
+    @Test
+    void nullReleaseYearDecodesInsteadOfFailing() {
+        String token = MovieCursor.after(movie(1L, "Alien", null), "releaseYear", Sort.Direction.ASC).encode();
+
+        assertThat(MovieCursor.decode(token).sortValue()).isNull();
+    }
+
+    @Test
+    void positionSeeksOnSortKeyThenId() {
+        MovieCursor cursor = MovieCursor.after(movie(7L, "Alien", 1979), "title", Sort.Direction.ASC);
+
+        KeysetScrollPosition position = (KeysetScrollPosition) cursor.position();
+
+        assertThat(position.getKeys()).containsExactly(
+                entry("title", "Alien"),
+                entry("id", 7L));
+        assertThat(cursor.sort()).isEqualTo(Sort.by(Sort.Direction.ASC, "title").and(Sort.by(Sort.Direction.ASC, "id")));
+    }
+
+    @Test
+    void firstCursorStartsAtTheBeginning() {
+        assertThat(MovieCursor.first("title", Sort.Direction.ASC).position()).isEqualTo(ScrollPosition.keyset());
+    }
+
+    @Test
+    void nullSortKeyCannotSeek() {
+        MovieCursor cursor = MovieCursor.decode(MovieCursor.after(movie(1L, null, 2000), "title", Sort.Direction.ASC).encode());
+
+        assertThatThrownBy(cursor::position).isInstanceOf(IllegalArgumentException.class);
+    }
+
+    @Test
+    void rejectsMalformedTokens() {
+        String unknownField = Base64.getUrlEncoder().encodeToString(
+                String.join("\u0000", "poster", "ASC", "=x", "1").getBytes(StandardCharsets.UTF_8));
+        String legacyValue = Base64.getUrlEncoder().encodeToString(
+                String.join("\u0000", "title", "ASC", "null", "1").getBytes(StandardCharsets.UTF_8));
+
+        assertThatThrownBy(() -> MovieCursor.decode("not a cursor")).isInstanceOf(IllegalArgumentException.class);
+        assertThatThrownBy(() -> MovieCursor.decode(unknownField)).isInstanceOf(IllegalArgumentException.class);
+        assertThatThrownBy(() -> MovieCursor.decode(legacyValue)).isInstanceOf(IllegalArgumentException.class);
+    }
+}
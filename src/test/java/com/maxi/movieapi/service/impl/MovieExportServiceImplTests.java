@@ -0,0 +1,142 @@
+package com.maxi.movieapi.service.impl;
+
+import com.fasterxml.jackson.core.type.TypeReference;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.maxi.movieapi.dto.MovieDto;
+import com.maxi.movieapi.service.MovieExportService.Format;
+import com.maxi.movieapi.service.MovieService;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.function.Consumer;
+import java.util.zip.GZIPInputStream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.Mockito.doAnswer;
+import static org.mockito.Mockito.mock;
+
+class MovieExportServiceImplTests {
+
+    private final ObjectMapper objectMapper = new ObjectMapper();
+    private final List<MovieDto> catalog = new ArrayList<>();
+    private MovieExportServiceImpl exportService;
+
+    @BeforeEach
+    void setUp() {
+        MovieService movieService = mock(MovieService.class);
+        // El cursor devuelve las películas con id mayor a afterId, en orden de id
+        doAnswer(invocation -> {
+            long afterId = invocation.getArgument(0);
+            Consumer<MovieDto> consumer = invocation.getArgument(1);
+            catalog.stream().filter(movie -> movie.getId() > afterId).forEach(consumer);
+            return null;
+        }).when(movieService).streamAllMovies(anyLong(), any());
+        exportService = new MovieExportServiceImpl(movieService, objectMapper);
+
+        catalog.add(movie(1L, "Alien", Set.of("Sigourney Weaver")));
+        catalog.add(movie(2L, "Crouching Tiger, \"Hidden\" Dragon", new LinkedHashSet<>(List.of("Chow Yun-fat", "Zhang | Ziyi"))));
+        catalog.add(movie(3L, "Line\nbreak", Set.of()));
+    }
+
+    private static MovieDto movie(Long id, String title, Set<String> cast) {
+        return MovieDto.builder().id(id).title(title).director("Director, Jr.").studio("Studio")
+                .releaseYear(1999).movieCast(cast).poster(id + ".png").posterUrl("http://localhost/file/" + id + ".png").build();
+    }
+
+    private String export(Format format, long afterId) throws IOException {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        exportService.exportMovies(out, format, afterId);
+        try (InputStream in = new GZIPInputStream(new ByteArrayInputStream(out.toByteArray()))) {
+            return new String(in.readAllBytes(), StandardCharsets.UTF_8);
+        }
+    }
+
+    // Lector CSV según RFC 4180: campos entre comillas con comillas duplicadas, comas y saltos de línea
+    private static List<List<String>> parseCsv(String text) {
+        List<List<String>> rows = new ArrayList<>();
+        List<String> row = new ArrayList<>();
+        StringBuilder field = new StringBuilder();
+        boolean quoted = false;
+        for (int i = 0; i < text.length(); i++) {
+            char c = text.charAt(i);
+            if (quoted) {
+                if (c == '"' && i + 1 < text.length() && text.charAt(i + 1) == '"') {
+                    field.append('"');
+                    i++;
+                } else if (c == '"') {
+                    quoted = false;
+                } else {
+                    field.append(c);
+                }
+            } else if (c == '"') {
+                quoted = true;
+            } else if (c == ',') {
+                row.add(field.toString());
+                field.setLength(0);
+            } else if (c == '\n') {
+                row.add(field.toString());
+                field.setLength(0);
+                rows.add(row);
+                row = new ArrayList<>();
+            } else {
+                field.append(c);
+            }
+        }
+        return rows;
+    }
+
+    @Test
+    void ndjsonRoundTripsEveryMovie() throws IOException {
+        List<String> lines = export(Format.NDJSON, 0).lines().toList();
+
+        assertThat(lines).hasSize(3);
+        List<MovieDto> movies = new ArrayList<>();
+        for (String line : lines) {
+            movies.add(objectMapper.readValue(line, MovieDto.class));
+        }
+        assertThat(movies).extracting(MovieDto::getTitle).containsExactly("Alien", "Crouching Tiger, \"Hidden\" Dragon", "Line\nbreak");
+        assertThat(movies.get(1).getMovieCast()).containsExactlyInAnyOrder("Chow Yun-fat", "Zhang | Ziyi");
+    }
+
+    @Test
+    void csvQuotesCommasQuotesAndNewlines() throws IOException {
+        List<List<String>> rows = parseCsv(export(Format.CSV, 0));
+
+        assertThat(rows).hasSize(4);
+        assertThat(rows.get(0)).containsExactly("id", "title", "director", "studio", "releaseYear", "movieCast", "poster", "posterUrl");
+        assertThat(rows).allSatisfy(row -> assertThat(row).hasSize(8));
+        assertThat(rows.get(2).get(1)).isEqualTo("Crouching Tiger, \"Hidden\" Dragon");
+        assertThat(rows.get(2).get(2)).isEqualTo("Director, Jr.");
+        assertThat(rows.get(3).get(1)).isEqualTo("Line\nbreak");
+        assertThat(rows.get(3).get(7)).isEqualTo("http://localhost/file/3.png");
+    }
+
+    @Test
+    void csvCastIsAJsonArrayThatSplitsBackExactly() throws IOException {
+        List<List<String>> rows = parseCsv(export(Format.CSV, 0));
+
+        List<String> cast = objectMapper.readValue(rows.get(2).get(5), new TypeReference<>() {
+        });
+        assertThat(cast).containsExactly("Chow Yun-fat", "Zhang | Ziyi");
+        assertThat(objectMapper.readValue(rows.get(3).get(5), List.class)).isEmpty();
+    }
+
+    @Test
+    void resumesAfterTheGivenId() throws IOException {
+        List<List<String>> rows = parseCsv(export(Format.CSV, 1));
+
+        assertThat(rows).extracting(row -> row.get(0)).containsExactly("id", "2", "3");
+        assertThat(export(Format.NDJSON, 3)).isEmpty();
+    }
+}
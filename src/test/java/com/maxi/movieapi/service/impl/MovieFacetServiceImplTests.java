@@ -0,0 +1,131 @@
+package com.maxi.movieapi.service.impl;
+
+import com.maxi.movieapi.dto.MovieDto;
+import com.maxi.movieapi.dto.MovieFacetsDto;
+import com.maxi.movieapi.service.MovieChangedEvent;
+import com.maxi.movieapi.service.MovieService;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.Map;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Mockito.mock;
+
+class MovieFacetServiceImplTests {
+
+    private MovieFacetServiceImpl facetService;
+
+    @BeforeEach
+    void setUp() {
+        facetService = new MovieFacetServiceImpl(mock(MovieService.class));
+        save(1L, "Fox", "Scott", 1979);
+        save(2L, "Fox", "Cameron", 1986);
+        save(3L, "Warner", "Scott", 1982);
+    }
+
+    private void save(Long id, String studio, String director, Integer releaseYear) {
+        MovieDto movie = MovieDto.builder().id(id).studio(studio).director(director).releaseYear(releaseYear).build();
+        facetService.onMovieChanged(new MovieChangedEvent(id, movie));
+    }
+
+    @Test
+    void countsEveryFacetWithoutFilters() {
+        MovieFacetsDto facets = facetService.getFacets(null, null, null);
+
+        assertThat(facets.total()).isEqualTo(3);
+        assertThat(facets.studios()).isEqualTo(Map.of("Fox", 2, "Warner", 1));
+        assertThat(facets.directors()).isEqualTo(Map.of("Scott", 2, "Cameron", 1));
+        assertThat(facets.decades()).isEqualTo(Map.of(1970, 1, 1980, 2));
+    }
+
+    @Test
+    void filtersByStudioDirectorAndDecade() {
+        assertThat(facetService.getFacets("fox", null, null).total()).isEqualTo(2);
+        assertThat(facetService.getFacets(null, "SCOTT", 1985).total()).isEqualTo(1);
+        assertThat(facetService.getFacets(null, null, 1980).studios()).isEqualTo(Map.of("Fox", 1, "Warner", 1));
+    }
+
+    @Test
+    void updateAndDeleteAdjustCounts() {
+        save(1L, "Warner", "Scott", 1992);
+        facetService.onMovieChanged(new MovieChangedEvent(2L, null));
+
+        MovieFacetsDto facets = facetService.getFacets(null, null, null);
+
+        assertThat(facets.total()).isEqualTo(2);
+        assertThat(facets.studios()).isEqualTo(Map.of("Warner", 2));
+        assertThat(facets.decades()).isEqualTo(Map.of(1980, 1, 1990, 1));
+    }
+
+    @Test
+    void movieWithoutYearCountsInNoDecade() {
+        save(4L, "Fox", "Scott", null);
+
+        MovieFacetsDto facets = facetService.getFacets(null, null, null);
+
+        assertThat(facets.total()).isEqualTo(4);
+        assertThat(facets.decades()).isEqualTo(Map.of(1970, 1, 1980, 2));
+        assertThat(facetService.getFacets("Fox", null, null).total()).isEqualTo(3);
+
+        facetService.onMovieChanged(new MovieChangedEvent(4L, null));
+        assertThat(facetService.getFacets(null, null, null).total()).isEqualTo(3);
+    }
+
+    @Test
+    void outOfRangeYearsAreNotClampedIntoTheEdgeDecades() {
+        save(4L, "Fox", "Scott", 1700);
+        save(5L, "Fox", "Scott", 2150);
+
+        MovieFacetsDto facets = facetService.getFacets(null, null, null);
+
+        assertThat(facets.total()).isEqualTo(5);
+        assertThat(facets.decades()).isEqualTo(Map.of(1970, 1, 1980, 2));
+        assertThat(facetService.getFacets(null, null, 1880).total()).isZero();
+        assertThat(facetService.getFacets(null, null, 2100).total()).isZero();
+    }
+
+    @Test
+    void outOfRangeDecadeFilterMatchesNothing() {
+        save(4L, "Fox", "Scott", 1888);
+
+        assertThat(facetService.getFacets(null, null, 1700).total()).isZero();
+        assertThat(facetService.getFacets(null, null, 2200).decades()).isEmpty();
+        assertThat(facetService.getFacets(null, null, 1880).total()).isEqualTo(1);
+    }
+
+    @Test
+    void spellingsOfTheSameValueAreCountedTogether() {
+        save(4L, " fox ", "SCOTT", 1979);
+
+        MovieFacetsDto facets = facetService.getFacets(null, null, null);
+
+        assertThat(facets.studios()).isEqualTo(Map.of("Fox", 3, "Warner", 1));
+        assertThat(facets.directors()).isEqualTo(Map.of("Scott", 3, "Cameron", 1));
+        assertThat(facetService.getFacets(" FOX", "scott ", null).total()).isEqualTo(2);
+        assertThat(facetService.getFacets(null, null, 1970).directors()).isEqualTo(Map.of("Scott", 2));
+    }
+
+    @Test
+    void labelIsKeptUntilTheLastMovieWithTheValueIsRemoved() {
+        save(4L, "FOX", "Scott", 1979);
+        facetService.onMovieChanged(new MovieChangedEvent(1L, null));
+        facetService.onMovieChanged(new MovieChangedEvent(2L, null));
+
+        assertThat(facetService.getFacets(null, null, null).studios()).isEqualTo(Map.of("Fox", 1, "Warner", 1));
+
+        facetService.onMovieChanged(new MovieChangedEvent(4L, null));
+        save(5L, "FOX", "Scott", 1979);
+
+        assertThat(facetService.getFacets(null, null, null).studios()).isEqualTo(Map.of("FOX", 1, "Warner", 1));
+    }
+
+    @Test
+    void combinedFiltersMatchOnlyMoviesInEveryFilter() {
+        MovieFacetsDto facets = facetService.getFacets("Fox", "Scott", 1980);
+
+        assertThat(facets.total()).isZero();
+        assertThat(facetService.getFacets("Fox", "Scott", 1970).studios()).isEqualTo(Map.of("Fox", 1));
+        assertThat(facetService.getFacets("Paramount", null, null).total()).isZero();
+    }
+}
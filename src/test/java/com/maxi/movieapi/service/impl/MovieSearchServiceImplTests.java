@@ -0,0 +1,118 @@
+package com.maxi.movieapi.service.impl;
+
+import com.maxi.movieapi.dto.MovieDto;
+import com.maxi.movieapi.service.MovieChangedEvent;
+import com.maxi.movieapi.service.MovieService;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+class MovieSearchServiceImplTests {
+
+    // Hace de caché de películas: el índice solo guarda ids y las resuelve con el servicio
+    private final Map<Long, MovieDto> movies = new HashMap<>();
+    private MovieSearchServiceImpl searchService;
+
+    @BeforeEach
+    void setUp() {
+        MovieService movieService = mock(MovieService.class);
+        when(movieService.getMovieById(anyLong())).thenAnswer(invocation -> Optional.ofNullable(movies.get(invocation.<Long>getArgument(0))));
+        searchService = new MovieSearchServiceImpl(movieService);
+        save(1L, "Alien", "Ridley Scott", "Fox", Set.of("Sigourney Weaver"));
+        save(2L, "Aliens", "James Cameron", "Fox", Set.of("Sigourney Weaver", "Michael Biehn"));
+        save(3L, "El laberinto del fauno", "Guillermo del Toro", "Estudios Picasso", Set.of("Ivana Baquero"));
+        save(4L, "Blade Runner", "Ridley Scott", "Warner", Set.of("Harrison Ford"));
+    }
+
+    private void save(Long id, String title, String director, String studio, Set<String> cast) {
+        MovieDto movie = MovieDto.builder().id(id).title(title).director(director).studio(studio).movieCast(cast).build();
+        movies.put(id, movie);
+        searchService.onMovieChanged(new MovieChangedEvent(id, movie));
+    }
+
+    private List<Long> search(String query, int limit) {
+        return searchService.searchMovies(query, limit).stream().map(MovieDto::getId).toList();
+    }
+
+    @Test
+    void tokenizesFoldingAccentsAndCase() {
+        assertThat(MovieSearchServiceImpl.tokenize("  Él LABERINTO—del   Fauno! ")).containsExactly("el", "laberinto", "del", "fauno");
+        assertThat(MovieSearchServiceImpl.tokenize(null)).isEmpty();
+        assertThat(MovieSearchServiceImpl.tokenize("  ")).isEmpty();
+    }
+
+    @Test
+    void matchesIgnoringAccentsAndCase() {
+        assertThat(search("LABERÍNTO", 10)).containsExactly(3L);
+        assertThat(search("estudiós picasso", 10)).containsExactly(3L);
+    }
+
+    @Test
+    void lastTermIsMatchedAsPrefix() {
+        assertThat(search("ali", 10)).containsExactlyInAnyOrder(1L, 2L);
+        // Solo el último término es prefijo: "ali" no coincide con "Aliens" y solo cuentan las de Scott
+        assertThat(search("ali scott", 10)).containsExactly(1L, 4L);
+    }
+
+    @Test
+    void titleMatchesRankAboveCastMatches() {
+        save(5L, "Harrison", "Someone", "Indie", Set.of());
+
+        assertThat(search("harrison", 10)).containsExactly(5L, 4L);
+    }
+
+    @Test
+    void moviesMatchingMoreTermsRankFirst() {
+        assertThat(search("ridley blade", 10).get(0)).isEqualTo(4L);
+    }
+
+    @Test
+    void equalScoresAreOrderedById() {
+        save(6L, "Twin", "Same", "Same", Set.of());
+        save(5L, "Twin", "Same", "Same", Set.of());
+
+        assertThat(search("twin", 10)).containsExactly(5L, 6L);
+    }
+
+    @Test
+    void limitsResultsAndRejectsInvalidLimits() {
+        assertThat(search("fox", 1)).hasSize(1);
+        assertThat(search("   ", 10)).isEmpty();
+        assertThatThrownBy(() -> searchService.searchMovies("fox", 0)).isInstanceOf(IllegalArgumentException.class);
+    }
+
+    @Test
+    void updatesReplaceTheIndexedTerms() {
+        save(1L, "Prometheus", "Ridley Scott", "Fox", Set.of("Noomi Rapace"));
+
+        assertThat(search("alien", 10)).containsExactly(2L);
+        assertThat(search("prometheus", 10)).containsExactly(1L);
+    }
+
+    @Test
+    void deletedMoviesAreRemovedFromTheIndex() {
+        searchService.onMovieChanged(new MovieChangedEvent(4L, null));
+
+        assertThat(search("blade", 10)).isEmpty();
+        assertThat(search("ridley", 10)).containsExactly(1L);
+    }
+
+    @Test
+    void resultsAreResolvedThroughTheMovieService() {
+        // Una película eliminada de la base pero todavía en el índice se omite
+        movies.remove(1L);
+
+        assertThat(search("sigourney", 10)).containsExactly(2L);
+    }
+}
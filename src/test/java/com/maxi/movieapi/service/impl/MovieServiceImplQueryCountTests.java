@@ -0,0 +1,109 @@
+package com.maxi.movieapi.service.impl;
+
+import com.maxi.movieapi.entities.Movie;
+import com.maxi.movieapi.repository.MovieRepository;
+import com.maxi.movieapi.service.MovieService;
+import jakarta.persistence.EntityManagerFactory;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Verifica la cantidad de sentencias SQL que ejecuta cada lectura de listados,
+ * para que una regresión N+1 sobre movie_cast rompa el build. Usa H2 en modo PostgreSQL para correr sin una base externa.
+ */
+@SpringBootTest(properties = {
+        "spring.datasource.url=jdbc:h2:mem:movie_query_count;MODE=PostgreSQL;DB_CLOSE_DELAY=-1",
+        "spring.datasource.username=sa",
+        "spring.datasource.password=",
+        "spring.jpa.database-platform=org.hibernate.dialect.H2Dialect",
+        "spring.jpa.properties.hibernate.generate_statistics=true",
+        "posters.storage=memory"
+})
+class MovieServiceImplQueryCountTests {
+
+    private static final int MOVIES = 150;
+
+    @Autowired
+    private MovieService movieService;
+
+    @Autowired
+    private MovieRepository movieRepository;
+
+    @Autowired
+    private EntityManagerFactory entityManagerFactory;
+
+    private Statistics statistics;
+
+    @BeforeEach
+    void setUp() {
+        List<Movie> movies = new ArrayList<>();
+        for (int i = 0; i < MOVIES; i++) {
+            movies.add(Movie.builder()
+                    .title("Movie " + i)
+                    .director("Director " + i % 7)
+                    .studio("Studio " + i % 3)
+                    .movieCast(Set.of("Actor " + i, "Actress " + i))
+                    .releaseYear(1950 + i % 70)
+                    .poster("poster-" + i + ".png")
+                    .build());
+        }
+        movieRepository.saveAll(movies);
+
+        statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+        statistics.clear();
+    }
+
+    @AfterEach
+    void tearDown() {
+        movieRepository.deleteAll();
+    }
+
+    @Test
+    void getAllMoviesByPageLoadsCastInOneQuery() {
+        movieService.getAllMoviesByPage(0, 100);
+
+        // página + count + reparto de toda la página
+        assertThat(statistics.getPrepareStatementCount()).isLessThanOrEqualTo(3);
+    }
+
+    @Test
+    void getAllMoviesByPageAndSortingLoadsCastInOneQuery() {
+        movieService.getAllMoviesByPageAndSorting(0, 100, "title", "ASC");
+
+        assertThat(statistics.getPrepareStatementCount()).isLessThanOrEqualTo(3);
+    }
+
+    @Test
+    void getMoviesByCursorLoadsCastInOneQuery() {
+        movieService.getMoviesByCursor(null, 100, "id", "ASC");
+
+        // ventana + reparto de toda la ventana
+        assertThat(statistics.getPrepareStatementCount()).isLessThanOrEqualTo(2);
+    }
+
+    @Test
+    void getAllMoviesLoadsCastInBatches() {
+        movieService.getAllMovies();
+
+        // películas + un lote de reparto cada 100 películas
+        assertThat(statistics.getPrepareStatementCount()).isLessThanOrEqualTo(1 + (MOVIES + 99) / 100);
+    }
+
+    @Test
+    void streamAllMoviesLoadsCastInBatches() {
+        movieService.streamAllMovies(0L, movie -> { });
+
+        assertThat(statistics.getPrepareStatementCount()).isLessThanOrEqualTo(1 + (MOVIES + 99) / 100);
+    }
+}
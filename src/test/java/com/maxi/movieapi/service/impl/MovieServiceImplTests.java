@@ -0,0 +1,126 @@
+package com.maxi.movieapi.service.impl;
+
+import com.maxi.movieapi.dto.MovieDto;
+import com.maxi.movieapi.dto.MoviePageResponseDto;
+import com.maxi.movieapi.entities.Movie;
+import com.maxi.movieapi.repository.MovieRepository;
+import com.maxi.movieapi.service.FileService;
+import com.maxi.movieapi.service.MovieChangedEvent;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.cache.CacheManager;
+import org.springframework.cache.concurrent.ConcurrentMapCacheManager;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.SliceImpl;
+import org.springframework.data.domain.Sort;
+
+import java.util.List;
+import java.util.Set;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+class MovieServiceImplTests {
+
+    private MovieRepository movieRepository;
+    private CacheManager cacheManager;
+    private MovieServiceImpl movieService;
+
+    @BeforeEach
+    void setUp() {
+        movieRepository = mock(MovieRepository.class);
+        cacheManager = new ConcurrentMapCacheManager(MovieServiceImpl.MOVIES_CACHE);
+        movieService = new MovieServiceImpl(movieRepository, mock(FileService.class),
+                mock(ApplicationEventPublisher.class), new MovieMapper(), cacheManager);
+    }
+
+    @Test
+    void committedChangeBumpsCatalogVersionOnce() {
+        long before = movieService.getCatalogVersion();
+
+        movieService.onMovieChanged(new MovieChangedEvent(1L, null));
+
+        assertThat(movieService.getCatalogVersion()).isEqualTo(before + 1);
+    }
+
+    @Test
+    void committedChangeEvictsCachedMovie() {
+        cacheManager.getCache(MovieServiceImpl.MOVIES_CACHE).put(1L, MovieDto.builder().id(1L).build());
+        cacheManager.getCache(MovieServiceImpl.MOVIES_CACHE).put(2L, MovieDto.builder().id(2L).build());
+
+        movieService.onMovieChanged(new MovieChangedEvent(1L, MovieDto.builder().id(1L).build()));
+
+        assertThat(cacheManager.getCache(MovieServiceImpl.MOVIES_CACHE).get(1L)).isNull();
+        assertThat(cacheManager.getCache(MovieServiceImpl.MOVIES_CACHE).get(2L)).isNotNull();
+    }
+
+    @Test
+    void countRefreshBumpsCatalogVersionOnlyWhenTheCountChanges() {
+        when(movieRepository.count()).thenReturn(10L, 10L, 11L);
+
+        movieService.refreshApproximateCount();
+        long afterFirstRefresh = movieService.getCatalogVersion();
+        movieService.refreshApproximateCount();
+        assertThat(movieService.getCatalogVersion()).isEqualTo(afterFirstRefresh);
+
+        movieService.refreshApproximateCount();
+        assertThat(movieService.getCatalogVersion()).isEqualTo(afterFirstRefresh + 1);
+    }
+
+    private static Movie movie(long id) {
+        return Movie.builder().id(id).title("Movie " + id).director("Director").studio("Studio")
+                .movieCast(Set.of("Actor")).releaseYear(1999).poster("poster.png").version(0L).build();
+    }
+
+    @Test
+    void sliceDoesNotCountAndReportsUnknownTotalsBeforeTheFirstRefresh() {
+        when(movieRepository.findAllBy(PageRequest.of(0, 2)))
+                .thenReturn(new SliceImpl<>(List.of(movie(1), movie(2)), PageRequest.of(0, 2), true));
+
+        MoviePageResponseDto response = movieService.getAllMoviesBySlice(0, 2);
+
+        assertThat(response.movies()).extracting(MovieDto::getId).containsExactly(1L, 2L);
+        assertThat(response.totalElements()).isEqualTo(-1);
+        assertThat(response.totalPages()).isEqualTo(-1);
+        assertThat(response.isLast()).isFalse();
+        verify(movieRepository, never()).count();
+    }
+
+    @Test
+    void sliceReportsApproximateTotalsFromTheLastRefresh() {
+        when(movieRepository.count()).thenReturn(5L);
+        movieService.refreshApproximateCount();
+        when(movieRepository.findAllBy(PageRequest.of(2, 2)))
+                .thenReturn(new SliceImpl<>(List.of(movie(5)), PageRequest.of(2, 2), false));
+
+        MoviePageResponseDto response = movieService.getAllMoviesBySlice(2, 2);
+
+        assertThat(response.totalElements()).isEqualTo(5);
+        assertThat(response.totalPages()).isEqualTo(3);
+        assertThat(response.pageNumber()).isEqualTo(2);
+        assertThat(response.isLast()).isTrue();
+        verify(movieRepository).count();
+    }
+
+    @Test
+    void sortedSliceRequestsTheGivenOrder() {
+        PageRequest pageable = PageRequest.of(0, 2, Sort.by(Sort.Direction.ASC, "title"));
+        when(movieRepository.findAllBy(pageable)).thenReturn(new SliceImpl<>(List.of(), pageable, false));
+
+        MoviePageResponseDto response = movieService.getAllMoviesBySliceAndSorting(0, 2, "title", "asc");
+
+        assertThat(response.movies()).isEmpty();
+        assertThat(response.isLast()).isTrue();
+    }
+
+    @Test
+    void sliceRejectsInvalidPageOrSize() {
+        assertThatThrownBy(() -> movieService.getAllMoviesBySlice(-1, 10)).isInstanceOf(IllegalArgumentException.class);
+        assertThatThrownBy(() -> movieService.getAllMoviesBySlice(0, 0)).isInstanceOf(IllegalArgumentException.class);
+    }
+}
@@ -0,0 +1,145 @@
+package com.maxi.movieapi.service.impl;
+
+import com.maxi.movieapi.repository.MovieRepository;
+import com.maxi.movieapi.service.storage.InMemoryPosterStorage;
+import com.maxi.movieapi.service.storage.PosterStorage;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.List;
+import java.util.Optional;
+import java.util.Set;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+class PosterGarbageCollectorTests {
+
+    private static final String POSTER = "a".repeat(64) + ".png";
+    private static final String OTHER_POSTER = "b".repeat(64) + ".png";
+
+    private MovieRepository movieRepository;
+    private PosterCache posterCache;
+    private SimpleMeterRegistry meterRegistry;
+
+    @BeforeEach
+    void setUp() {
+        movieRepository = mock(MovieRepository.class);
+        posterCache = mock(PosterCache.class);
+        meterRegistry = new SimpleMeterRegistry();
+        when(movieRepository.findReferencedPosters(any())).thenReturn(Set.of());
+    }
+
+    private static void store(PosterStorage storage, String key, String content) throws IOException {
+        try (PosterStorage.Staging staging = storage.stage()) {
+            staging.outputStream().write(content.getBytes(StandardCharsets.UTF_8));
+            staging.commit(key);
+        }
+    }
+
+    private PosterGarbageCollector collector(PosterStorage storage, Duration gracePeriod) {
+        return new PosterGarbageCollector(storage, movieRepository, posterCache, 100, gracePeriod, meterRegistry);
+    }
+
+    @Test
+    void deletesUnreferencedPosterAndItsVariants() throws IOException {
+        InMemoryPosterStorage storage = new InMemoryPosterStorage();
+        store(storage, POSTER, "poster");
+        store(storage, "a".repeat(64) + "_small.png", "small");
+
+        collector(storage, Duration.ZERO).collect();
+
+        assertThat(storage.list(null, 10)).isEmpty();
+        assertThat(meterRegistry.counter("posters.gc.deleted.files").count()).isEqualTo(2);
+        assertThat(meterRegistry.counter("posters.gc.reclaimed.bytes").count()).isEqualTo(11);
+        verify(posterCache).invalidate(POSTER);
+    }
+
+    @Test
+    void keepsReferencedPosterAndItsVariants() throws IOException {
+        InMemoryPosterStorage storage = new InMemoryPosterStorage();
+        store(storage, POSTER, "poster");
+        store(storage, "a".repeat(64) + "_small.png", "small");
+        store(storage, OTHER_POSTER, "other");
+        when(movieRepository.findReferencedPosters(any())).thenReturn(Set.of(POSTER));
+
+        collector(storage, Duration.ZERO).collect();
+
+        assertThat(storage.list(null, 10)).extracting(PosterStorage.StoredObject::key)
+                .containsExactly(POSTER, "a".repeat(64) + "_small.png");
+    }
+
+    @Test
+    void keepsReferencedLegacyPosterNamedLikeAVariant() throws IOException {
+        // Un póster heredado con sufijo de variante en el nombre, referenciado tal cual por una película
+        InMemoryPosterStorage storage = new InMemoryPosterStorage();
+        store(storage, "foo_small.png", "legacy");
+        when(movieRepository.findReferencedPosters(Set.of("foo_small.png", "foo.png"))).thenReturn(Set.of("foo_small.png"));
+
+        collector(storage, Duration.ZERO).collect();
+
+        assertThat(storage.exists("foo_small.png")).isTrue();
+    }
+
+    @Test
+    void keepsPosterWithinGracePeriod() throws IOException {
+        // Un póster recién subido cuya película todavía no se confirmó no tiene referencias
+        InMemoryPosterStorage storage = new InMemoryPosterStorage();
+        store(storage, POSTER, "poster");
+
+        collector(storage, Duration.ofHours(1)).collect();
+
+        assertThat(storage.exists(POSTER)).isTrue();
+    }
+
+    @Test
+    void keepsPosterReusedByDedupUploadAfterListing() throws IOException {
+        // El listado ve el archivo viejo, pero una subida del mismo contenido renovó su fecha antes del borrado
+        long old = System.currentTimeMillis() - Duration.ofDays(1).toMillis();
+        PosterStorage storage = mock(PosterStorage.class);
+        when(storage.list(null, 100)).thenReturn(List.of(new PosterStorage.StoredObject(POSTER, 6, old)));
+        when(storage.stat(POSTER)).thenReturn(Optional.of(new PosterStorage.StoredObject(POSTER, 6, System.currentTimeMillis())));
+
+        collector(storage, Duration.ofHours(1)).collect();
+
+        verify(storage, never()).delete(anyString());
+    }
+
+    @Test
+    void dedupCommitRenewsLastModifiedOfExistingPoster() throws IOException, InterruptedException {
+        InMemoryPosterStorage storage = new InMemoryPosterStorage();
+        store(storage, POSTER, "poster");
+        long first = storage.stat(POSTER).orElseThrow().lastModified();
+        Thread.sleep(5);
+
+        store(storage, POSTER, "poster");
+
+        assertThat(storage.stat(POSTER).orElseThrow().lastModified()).isGreaterThan(first);
+    }
+
+    @Test
+    void resumesFromCursorAndStartsOverAtTheEnd() throws IOException {
+        InMemoryPosterStorage storage = new InMemoryPosterStorage();
+        store(storage, POSTER, "poster");
+        store(storage, OTHER_POSTER, "other");
+        when(movieRepository.findReferencedPosters(any())).thenReturn(Set.of(POSTER, OTHER_POSTER));
+        PosterGarbageCollector collector = new PosterGarbageCollector(storage, movieRepository, posterCache,
+                1, Duration.ZERO, meterRegistry);
+
+        collector.collect();
+        collector.collect();
+        collector.collect();
+        collector.collect();
+
+        assertThat(meterRegistry.counter("posters.gc.scanned.files").count()).isEqualTo(3);
+    }
+}
@@ -0,0 +1,110 @@
+package com.maxi.movieapi.service.impl;
+
+import org.junit.jupiter.api.Test;
+
+import javax.imageio.ImageIO;
+import java.awt.Color;
+import java.awt.Graphics2D;
+import java.awt.image.BufferedImage;
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.FilterInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.Random;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class PosterMetadataExtractorTests {
+
+    // Cuenta los bytes que el extractor lee del flujo original
+    private static final class CountingInputStream extends FilterInputStream {
+
+        private long count;
+
+        private CountingInputStream(InputStream in) {
+            super(in);
+        }
+
+        @Override
+        public int read() throws IOException {
+            int b = super.read();
+            if (b >= 0) {
+                count++;
+            }
+            return b;
+        }
+
+        @Override
+        public int read(byte[] buffer, int offset, int length) throws IOException {
+            int n = super.read(buffer, offset, length);
+            if (n > 0) {
+                count += n;
+            }
+            return n;
+        }
+    }
+
+    private static byte[] noisyImage(int width, int height, String format) throws IOException {
+        BufferedImage image = new BufferedImage(width, height, BufferedImage.TYPE_INT_RGB);
+        Random random = new Random(42);
+        for (int y = 0; y < height; y++) {
+            for (int x = 0; x < width; x++) {
+                image.setRGB(x, y, random.nextInt());
+            }
+        }
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        ImageIO.write(image, format, out);
+        return out.toByteArray();
+    }
+
+    @Test
+    void readsDimensionsFromTheHeaderOnly() throws IOException {
+        byte[] png = noisyImage(1000, 800, "png");
+        assertThat(png.length).isGreaterThan(PosterMetadataExtractor.HEADER_BYTES);
+        CountingInputStream in = new CountingInputStream(new ByteArrayInputStream(png));
+
+        PosterMetadataExtractor.ImageInfo info = PosterMetadataExtractor.extract(in);
+
+        assertThat(info).isEqualTo(new PosterMetadataExtractor.ImageInfo(1000, 800, "image/png"));
+        assertThat(in.count).isLessThanOrEqualTo(PosterMetadataExtractor.HEADER_BYTES);
+    }
+
+    @Test
+    void readsJpegDimensions() throws IOException {
+        byte[] jpeg = noisyImage(640, 960, "jpg");
+
+        PosterMetadataExtractor.ImageInfo info = PosterMetadataExtractor.extract(new ByteArrayInputStream(jpeg));
+
+        assertThat(info.width()).isEqualTo(640);
+        assertThat(info.height()).isEqualTo(960);
+        assertThat(info.mimeType()).isEqualTo("image/jpeg");
+    }
+
+    @Test
+    void returnsNullForUnknownFormats() throws IOException {
+        InputStream in = new ByteArrayInputStream("plain text".getBytes(StandardCharsets.UTF_8));
+
+        assertThat(PosterMetadataExtractor.extract(in)).isNull();
+    }
+
+    @Test
+    void placeholderIsTheAverageVisibleColor() {
+        BufferedImage image = new BufferedImage(4, 2, BufferedImage.TYPE_INT_ARGB);
+        Graphics2D graphics = image.createGraphics();
+        graphics.setColor(Color.RED);
+        graphics.fillRect(0, 0, 2, 2);
+        graphics.setColor(Color.BLUE);
+        graphics.fillRect(2, 0, 1, 2);
+        graphics.dispose();
+
+        // La última columna es transparente y no cuenta
+        assertThat(PosterMetadataExtractor.placeholder(image)).isEqualTo("#aa0055");
+    }
+
+    @Test
+    void placeholderOfTransparentImageIsNull() {
+        assertThat(PosterMetadataExtractor.placeholder(new BufferedImage(2, 2, BufferedImage.TYPE_INT_ARGB))).isNull();
+    }
+}
@@ -0,0 +1,105 @@
+package com.maxi.movieapi.service.impl;
+
+import com.maxi.movieapi.dto.MovieDto;
+import com.maxi.movieapi.dto.PosterMetadataDto;
+import com.maxi.movieapi.entities.Movie;
+import com.maxi.movieapi.entities.PosterMetadata;
+import com.maxi.movieapi.repository.MovieRepository;
+import com.maxi.movieapi.service.MovieChangedEvent;
+import com.maxi.movieapi.service.PosterPlaceholderEvent;
+import com.maxi.movieapi.service.PosterVariantService;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.transaction.PlatformTransactionManager;
+
+import java.io.IOException;
+import java.util.List;
+import java.util.Optional;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+class PosterPlaceholderUpdaterTests {
+
+    private static final String POSTER = "a".repeat(64) + ".png";
+
+    private MovieRepository movieRepository;
+    private PosterVariantService posterVariantService;
+    private ApplicationEventPublisher eventPublisher;
+    private PosterPlaceholderUpdater updater;
+
+    @BeforeEach
+    void setUp() {
+        movieRepository = mock(MovieRepository.class);
+        posterVariantService = mock(PosterVariantService.class);
+        eventPublisher = mock(ApplicationEventPublisher.class);
+        updater = new PosterPlaceholderUpdater(movieRepository, posterVariantService, new MovieMapper(),
+                eventPublisher, mock(PlatformTransactionManager.class));
+        when(movieRepository.saveAndFlush(any(Movie.class))).thenAnswer(invocation -> invocation.getArgument(0));
+    }
+
+    private static Movie movie(Long id, String placeholder) {
+        return Movie.builder()
+                .id(id)
+                .poster(POSTER)
+                .posterMetadata(PosterMetadata.builder().width(10).height(20).placeholder(placeholder).build())
+                .build();
+    }
+
+    @Test
+    void fillsMissingPlaceholdersOfMoviesUsingThePoster() {
+        Movie withoutColor = movie(1L, null);
+        Movie withColor = movie(2L, "#000000");
+        Movie withoutMetadata = Movie.builder().id(3L).poster(POSTER).build();
+        when(movieRepository.findAllByPoster(POSTER)).thenReturn(List.of(withoutColor, withColor, withoutMetadata));
+
+        updater.onPosterPlaceholder(new PosterPlaceholderEvent(POSTER, "#ff0000"));
+
+        assertThat(withoutColor.getPosterMetadata().getPlaceholder()).isEqualTo("#ff0000");
+        assertThat(withoutColor.getPosterMetadata().getWidth()).isEqualTo(10);
+        assertThat(withColor.getPosterMetadata().getPlaceholder()).isEqualTo("#000000");
+        assertThat(withoutMetadata.getPosterMetadata().getPlaceholder()).isEqualTo("#ff0000");
+        verify(movieRepository, never()).saveAndFlush(withColor);
+        verify(eventPublisher).publishEvent(new MovieChangedEvent(1L, new MovieMapper().toDto(withoutColor)));
+    }
+
+    @Test
+    void committedMovieWithoutPlaceholderTakesItFromExistingVariant() throws IOException {
+        Movie stored = movie(1L, null);
+        when(movieRepository.findAllByPoster(POSTER)).thenReturn(List.of(stored));
+        when(posterVariantService.getPlaceholder(POSTER)).thenReturn(Optional.of("#00ff00"));
+        MovieDto committed = MovieDto.builder().id(1L).poster(POSTER)
+                .posterMetadata(new PosterMetadataDto(10, 20, "image/png", 100L, null)).build();
+
+        updater.onMovieChanged(new MovieChangedEvent(1L, committed));
+
+        assertThat(stored.getPosterMetadata().getPlaceholder()).isEqualTo("#00ff00");
+    }
+
+    @Test
+    void committedMovieWaitsForVariantsWhenTheyDoNotExistYet() throws IOException {
+        when(posterVariantService.getPlaceholder(POSTER)).thenReturn(Optional.empty());
+        MovieDto committed = MovieDto.builder().id(1L).poster(POSTER).build();
+
+        updater.onMovieChanged(new MovieChangedEvent(1L, committed));
+
+        verify(movieRepository, never()).findAllByPoster(anyString());
+    }
+
+    @Test
+    void ignoresDeletedMoviesAndMoviesWithPlaceholder() throws IOException {
+        MovieDto withColor = MovieDto.builder().id(1L).poster(POSTER)
+                .posterMetadata(new PosterMetadataDto(10, 20, "image/png", 100L, "#123456")).build();
+
+        updater.onMovieChanged(new MovieChangedEvent(1L, null));
+        updater.onMovieChanged(new MovieChangedEvent(1L, withColor));
+
+        verify(posterVariantService, never()).getPlaceholder(anyString());
+    }
+}
@@ -0,0 +1,164 @@
+package com.maxi.movieapi.service.impl;
+
+import com.maxi.movieapi.service.PosterPlaceholderEvent;
+import com.maxi.movieapi.service.PosterVariantService.Status;
+import com.maxi.movieapi.service.PosterVariantService.Variant;
+import com.maxi.movieapi.service.storage.InMemoryPosterStorage;
+import com.maxi.movieapi.service.storage.PosterStorage;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.context.ApplicationEventPublisher;
+
+import javax.imageio.ImageIO;
+import java.awt.Color;
+import java.awt.Graphics2D;
+import java.awt.image.BufferedImage;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.Map;
+import java.util.function.BooleanSupplier;
+import java.util.zip.CRC32;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.spy;
+import static org.mockito.Mockito.timeout;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+
+class PosterVariantServiceImplTests {
+
+    private static final String POSTER = "a".repeat(64) + ".png";
+
+    private PosterStorage posterStorage;
+    private ApplicationEventPublisher eventPublisher;
+    private PosterVariantServiceImpl posterVariantService;
+
+    @BeforeEach
+    void setUp() {
+        posterStorage = spy(new InMemoryPosterStorage());
+        eventPublisher = mock(ApplicationEventPublisher.class);
+        posterVariantService = new PosterVariantServiceImpl(posterStorage, eventPublisher, 1, 10, 100, 50_000_000);
+    }
+
+    @AfterEach
+    void tearDown() {
+        posterVariantService.shutdown();
+    }
+
+    private void store(String key, Writer writer) throws IOException {
+        try (PosterStorage.Staging staging = posterStorage.stage()) {
+            writer.write(staging.outputStream());
+            staging.commit(key);
+        }
+    }
+
+    private interface Writer {
+        void write(OutputStream out) throws IOException;
+    }
+
+    private static void png(OutputStream out) throws IOException {
+        BufferedImage image = new BufferedImage(800, 1200, BufferedImage.TYPE_INT_RGB);
+        Graphics2D graphics = image.createGraphics();
+        graphics.setColor(Color.RED);
+        graphics.fillRect(0, 0, 800, 1200);
+        graphics.dispose();
+        ImageIO.write(image, "png", out);
+    }
+
+    // PNG de 1x1 cuya cabecera IHDR declara las dimensiones indicadas, con el CRC recalculado
+    private static byte[] pngDeclaring(int width, int height) throws IOException {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        ImageIO.write(new BufferedImage(1, 1, BufferedImage.TYPE_INT_RGB), "png", out);
+        ByteBuffer png = ByteBuffer.wrap(out.toByteArray());
+        // Firma (8) + largo del chunk (4) + "IHDR" (4): ancho y alto empiezan en el byte 16
+        png.putInt(16, width);
+        png.putInt(20, height);
+        CRC32 crc = new CRC32();
+        crc.update(png.array(), 12, 4 + 13);
+        png.putInt(29, (int) crc.getValue());
+        return png.array();
+    }
+
+    private static void await(BooleanSupplier condition) throws InterruptedException {
+        long deadline = System.nanoTime() + Duration.ofSeconds(10).toNanos();
+        while (!condition.getAsBoolean()) {
+            assertThat(System.nanoTime()).as("condition not met in time").isLessThan(deadline);
+            Thread.sleep(10);
+        }
+    }
+
+    @Test
+    void missingVariantServesOriginalAndIsGeneratedInBackground() throws Exception {
+        store(POSTER, PosterVariantServiceImplTests::png);
+
+        assertThat(posterVariantService.resolveVariant(POSTER, Variant.SMALL)).isEqualTo(POSTER);
+
+        await(() -> posterStorage.exists(Variant.SMALL.fileName(POSTER)));
+        await(() -> posterStorage.exists(Variant.MEDIUM.fileName(POSTER)));
+        assertThat(posterVariantService.resolveVariant(POSTER, Variant.SMALL)).isEqualTo(Variant.SMALL.fileName(POSTER));
+        try (var in = posterStorage.openStream(Variant.SMALL.fileName(POSTER))) {
+            assertThat(ImageIO.read(in).getWidth()).isEqualTo(Variant.SMALL.maxWidth());
+        }
+    }
+
+    @Test
+    void placeholderIsComputedFromTheSmallVariant() throws Exception {
+        store(POSTER, PosterVariantServiceImplTests::png);
+        assertThat(posterVariantService.getPlaceholder(POSTER)).isEmpty();
+
+        posterVariantService.scheduleVariants(POSTER);
+
+        verify(eventPublisher, timeout(10_000)).publishEvent(new PosterPlaceholderEvent(POSTER, "#ff0000"));
+        assertThat(posterVariantService.getPlaceholder(POSTER)).contains("#ff0000");
+    }
+
+    @Test
+    void failedPosterIsNotDecodedAgain() throws Exception {
+        store(POSTER, out -> out.write("not an image".getBytes(StandardCharsets.UTF_8)));
+
+        posterVariantService.resolveVariant(POSTER, Variant.SMALL);
+        await(() -> posterVariantService.getStatus(POSTER).get(Variant.SMALL) == Status.FAILED);
+        for (int i = 0; i < 10; i++) {
+            assertThat(posterVariantService.resolveVariant(POSTER, Variant.MEDIUM)).isEqualTo(POSTER);
+        }
+        posterVariantService.scheduleVariants(POSTER);
+
+        verify(posterStorage, times(1)).openStream(POSTER);
+    }
+
+    @Test
+    void posterDeclaringTooManyPixelsIsMarkedFailedWithoutDecoding() throws Exception {
+        byte[] bomb = pngDeclaring(30_000, 30_000);
+        store(POSTER, out -> out.write(bomb));
+        assertThat(bomb.length).isLessThan(1024);
+
+        // Una solicitud de la variante sirve el original y deja la generación en segundo plano
+        assertThat(posterVariantService.resolveVariant(POSTER, Variant.SMALL)).isEqualTo(POSTER);
+        await(() -> posterVariantService.getStatus(POSTER).get(Variant.SMALL) == Status.FAILED);
+
+        assertThat(posterStorage.exists(Variant.SMALL.fileName(POSTER))).isFalse();
+        assertThat(posterStorage.exists(Variant.MEDIUM.fileName(POSTER))).isFalse();
+        verify(eventPublisher, never()).publishEvent(any());
+    }
+
+    @Test
+    void statusIsDroppedOnceVariantsExist() throws Exception {
+        store(POSTER, PosterVariantServiceImplTests::png);
+        posterVariantService.scheduleVariants(POSTER);
+        await(() -> posterVariantService.getStatus(POSTER).values().stream().allMatch(status -> status == Status.READY));
+
+        // Sin un estado guardado, una variante que falta vuelve a figurar como pendiente
+        posterStorage.delete(Variant.SMALL.fileName(POSTER));
+        Map<Variant, Status> statuses = posterVariantService.getStatus(POSTER);
+
+        assertThat(statuses).containsEntry(Variant.SMALL, Status.PENDING).containsEntry(Variant.MEDIUM, Status.READY);
+    }
+}
@@ -0,0 +1,93 @@
+package com.maxi.movieapi.service.storage;
+
+import org.junit.jupiter.api.Test;
+
+import java.io.ByteArrayOutputStream;
+import java.io.FileNotFoundException;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.channels.Channels;
+import java.nio.charset.StandardCharsets;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class InMemoryPosterStorageTests {
+
+    private final InMemoryPosterStorage storage = new InMemoryPosterStorage();
+
+    private void store(String key, String content) throws IOException {
+        try (PosterStorage.Staging staging = storage.stage()) {
+            staging.outputStream().write(content.getBytes(StandardCharsets.UTF_8));
+            staging.commit(key);
+        }
+    }
+
+    private String read(String key) throws IOException {
+        try (InputStream in = storage.openStream(key)) {
+            return new String(in.readAllBytes(), StandardCharsets.UTF_8);
+        }
+    }
+
+    @Test
+    void storesAndReadsObjects() throws IOException {
+        store("a.png", "poster");
+
+        assertThat(storage.exists("a.png")).isTrue();
+        assertThat(read("a.png")).isEqualTo("poster");
+        assertThat(storage.stat("a.png")).get().extracting(PosterStorage.StoredObject::size).isEqualTo(6L);
+    }
+
+    @Test
+    void stagingClosedWithoutCommitIsDiscarded() throws IOException {
+        try (PosterStorage.Staging staging = storage.stage()) {
+            staging.outputStream().write("poster".getBytes(StandardCharsets.UTF_8));
+        }
+
+        assertThat(storage.list(null, 10)).isEmpty();
+    }
+
+    @Test
+    void commitOfAnExistingKeyKeepsTheContentAndRenewsTheDate() throws IOException, InterruptedException {
+        store("a.png", "poster");
+        long first = storage.stat("a.png").orElseThrow().lastModified();
+        Thread.sleep(5);
+
+        store("a.png", "other");
+
+        assertThat(read("a.png")).isEqualTo("poster");
+        assertThat(storage.stat("a.png").orElseThrow().lastModified()).isGreaterThan(first);
+    }
+
+    @Test
+    void transfersTheRequestedRange() throws IOException {
+        store("a.png", "0123456789");
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+
+        long written = storage.transferTo("a.png", 2, 5, Channels.newChannel(out));
+
+        assertThat(written).isEqualTo(5);
+        assertThat(out.toString(StandardCharsets.UTF_8)).isEqualTo("23456");
+    }
+
+    @Test
+    void listsInKeyOrderFromTheLastKey() throws IOException {
+        store("c.png", "c");
+        store("a.png", "a");
+        store("b.png", "b");
+
+        assertThat(storage.list(null, 2)).extracting(PosterStorage.StoredObject::key).containsExactly("a.png", "b.png");
+        assertThat(storage.list("b.png", 2)).extracting(PosterStorage.StoredObject::key).containsExactly("c.png");
+        assertThat(storage.list("c.png", 2)).isEmpty();
+    }
+
+    @Test
+    void deletedObjectIsGone() throws IOException {
+        store("a.png", "poster");
+
+        assertThat(storage.delete("a.png")).isTrue();
+        assertThat(storage.delete("a.png")).isFalse();
+        assertThat(storage.exists("a.png")).isFalse();
+        assertThatThrownBy(() -> storage.openStream("a.png")).isInstanceOf(FileNotFoundException.class);
+    }
+}
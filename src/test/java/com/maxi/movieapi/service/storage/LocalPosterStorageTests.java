@@ -0,0 +1,77 @@
+package com.maxi.movieapi.service.storage;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class LocalPosterStorageTests {
+
+    private static final String POSTER = "abcd" + "0".repeat(60) + ".png";
+
+    @TempDir
+    private Path root;
+
+    private static String read(PosterStorage storage, String key) throws IOException {
+        try (InputStream in = storage.openStream(key)) {
+            return new String(in.readAllBytes(), StandardCharsets.UTF_8);
+        }
+    }
+
+    @Test
+    void storesPostersInDirectoriesByHashPrefix() throws IOException {
+        LocalPosterStorage storage = new LocalPosterStorage(root.toString());
+        try (PosterStorage.Staging staging = storage.stage()) {
+            staging.outputStream().write("poster".getBytes(StandardCharsets.UTF_8));
+            staging.commit(POSTER);
+        }
+
+        assertThat(root.resolve("ab").resolve("cd").resolve(POSTER)).hasContent("poster");
+        assertThat(storage.list(null, 10)).extracting(PosterStorage.StoredObject::key).containsExactly(POSTER);
+    }
+
+    @Test
+    void servesFlatLayoutPostersBeforeTheMigration() throws IOException {
+        Files.writeString(root.resolve(POSTER), "legacy");
+        Files.writeString(root.resolve("old-name.jpg"), "legacy jpg");
+        LocalPosterStorage storage = new LocalPosterStorage(root.toString());
+
+        assertThat(storage.exists(POSTER)).isTrue();
+        assertThat(read(storage, POSTER)).isEqualTo("legacy");
+        assertThat(read(storage, "old-name.jpg")).isEqualTo("legacy jpg");
+        assertThat(storage.stat(POSTER)).get().extracting(PosterStorage.StoredObject::size).isEqualTo(6L);
+    }
+
+    @Test
+    void migrationMovesPostersAndSkipsHiddenFiles() throws IOException {
+        Files.writeString(root.resolve(POSTER), "legacy");
+        Files.writeString(root.resolve(".DS_Store"), "finder");
+        Files.writeString(root.resolve(".gitkeep"), "");
+        Files.writeString(root.resolve("upload-1.tmp"), "partial");
+        LocalPosterStorage storage = new LocalPosterStorage(root.toString());
+
+        assertThat(storage.migrateFlatLayout()).isEqualTo(1);
+
+        assertThat(root.resolve(POSTER)).doesNotExist();
+        assertThat(root.resolve("ab").resolve("cd").resolve(POSTER)).hasContent("legacy");
+        assertThat(root.resolve(".DS_Store")).exists();
+        assertThat(read(storage, POSTER)).isEqualTo("legacy");
+        // Idempotente
+        assertThat(storage.migrateFlatLayout()).isZero();
+    }
+
+    @Test
+    void deleteRemovesFlatLayoutPosters() throws IOException {
+        Files.writeString(root.resolve(POSTER), "legacy");
+        LocalPosterStorage storage = new LocalPosterStorage(root.toString());
+
+        assertThat(storage.delete(POSTER)).isTrue();
+        assertThat(storage.exists(POSTER)).isFalse();
+    }
+}
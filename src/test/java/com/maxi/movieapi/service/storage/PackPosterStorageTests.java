@@ -0,0 +1,178 @@
+package com.maxi.movieapi.service.storage;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.stream.Stream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class PackPosterStorageTests {
+
+    // Cada registro de estas pruebas ocupa 74 bytes (19 de cabecera, 5 de clave y 50 de datos): entran 3 por segmento
+    private static final int SEGMENT_BYTES = 250;
+    private static final String DATA = "x".repeat(50);
+    private static final int MAX_OBJECT_BYTES = 100;
+
+    @TempDir
+    private Path directory;
+
+    private PackPosterStorage open() throws IOException {
+        return new PackPosterStorage(directory.toString(), SEGMENT_BYTES, 0.5, MAX_OBJECT_BYTES, new SimpleMeterRegistry());
+    }
+
+    private static void store(PosterStorage storage, String key, String content) throws IOException {
+        try (PosterStorage.Staging staging = storage.stage()) {
+            staging.outputStream().write(content.getBytes(StandardCharsets.UTF_8));
+            staging.commit(key);
+        }
+    }
+
+    private static String read(PosterStorage storage, String key) throws IOException {
+        try (InputStream in = storage.openStream(key)) {
+            return new String(in.readAllBytes(), StandardCharsets.UTF_8);
+        }
+    }
+
+    private long files(String name) throws IOException {
+        try (Stream<Path> files = Files.list(directory.resolve(name))) {
+            return files.count();
+        }
+    }
+
+    private long segmentFiles() throws IOException {
+        try (Stream<Path> files = Files.list(directory.resolve("packs"))) {
+            return files.count();
+        }
+    }
+
+    @Test
+    void rebuildsTheIndexFromTheSegmentsOnRestart() throws IOException {
+        PackPosterStorage storage = open();
+        store(storage, "a.png", DATA);
+        store(storage, "b.png", "poster b");
+
+        PackPosterStorage reopened = open();
+
+        assertThat(read(reopened, "a.png")).isEqualTo(DATA);
+        assertThat(read(reopened, "b.png")).isEqualTo("poster b");
+    }
+
+    @Test
+    void deletedPosterStaysDeletedAfterRestart() throws IOException {
+        PackPosterStorage storage = open();
+        store(storage, "a.png", DATA);
+        store(storage, "b.png", DATA);
+
+        assertThat(storage.delete("a.png")).isTrue();
+        assertThat(storage.delete("a.png")).isFalse();
+
+        PackPosterStorage reopened = open();
+        assertThat(reopened.exists("a.png")).isFalse();
+        assertThat(reopened.exists("b.png")).isTrue();
+    }
+
+    @Test
+    void commitOfAnExistingKeyRenewsTheDateWithoutAppending() throws IOException, InterruptedException {
+        PackPosterStorage storage = open();
+        store(storage, "a.png", DATA);
+        long first = storage.stat("a.png").orElseThrow().lastModified();
+        Thread.sleep(5);
+
+        store(storage, "a.png", "other");
+
+        assertThat(read(storage, "a.png")).isEqualTo(DATA);
+        long renewed = storage.stat("a.png").orElseThrow().lastModified();
+        assertThat(renewed).isGreaterThan(first);
+        // La fecha nueva se escribió en el registro y sobrevive a un reinicio
+        assertThat(open().stat("a.png").orElseThrow().lastModified()).isEqualTo(renewed);
+    }
+
+    @Test
+    void compactionMovesLivePostersAndDeletesTheSegment() throws IOException {
+        PackPosterStorage storage = open();
+        store(storage, "a.png", DATA);
+        store(storage, "b.png", DATA);
+        store(storage, "c.png", DATA);
+        store(storage, "d.png", DATA);
+        storage.delete("a.png");
+        storage.delete("b.png");
+        assertThat(segmentFiles()).isEqualTo(2);
+
+        storage.compact();
+
+        assertThat(segmentFiles()).isEqualTo(1);
+        assertThat(read(storage, "c.png")).isEqualTo(DATA);
+        assertThat(read(storage, "d.png")).isEqualTo(DATA);
+        PackPosterStorage reopened = open();
+        assertThat(reopened.list(null, 10)).extracting(PosterStorage.StoredObject::key).containsExactly("c.png", "d.png");
+    }
+
+    @Test
+    void compactionKeepsTombstonesForPostersInOlderSegments() throws IOException {
+        PackPosterStorage storage = open();
+        // Segmento 1: a, b, f
+        store(storage, "a.png", DATA);
+        store(storage, "b.png", DATA);
+        store(storage, "f.png", DATA);
+        // Segmento 2: c, lápida de a, lápida de c, d
+        store(storage, "c.png", DATA);
+        storage.delete("a.png");
+        storage.delete("c.png");
+        store(storage, "d.png", DATA);
+        // Segmento 3: e
+        store(storage, "e.png", DATA);
+
+        // Solo el segmento 2 supera el umbral; el registro de "a" sigue en el segmento 1
+        storage.compact();
+
+        assertThat(segmentFiles()).isEqualTo(2);
+        PackPosterStorage reopened = open();
+        assertThat(reopened.exists("a.png")).isFalse();
+        assertThat(reopened.list(null, 10)).extracting(PosterStorage.StoredObject::key)
+                .containsExactly("b.png", "d.png", "e.png", "f.png");
+    }
+
+    @Test
+    void activeSegmentIsNotCompacted() throws IOException {
+        PackPosterStorage storage = open();
+        store(storage, "a.png", DATA);
+        storage.delete("a.png");
+
+        storage.compact();
+
+        assertThat(segmentFiles()).isEqualTo(1);
+    }
+
+    @Test
+    void stagedPosterIsCopiedFromItsTemporaryFileAndTheFileIsRemoved() throws IOException {
+        PackPosterStorage storage = open();
+
+        store(storage, "a.png", DATA);
+
+        assertThat(read(storage, "a.png")).isEqualTo(DATA);
+        assertThat(files(".staging")).isZero();
+    }
+
+    @Test
+    void posterOverTheLimitIsRejectedWhileWriting() throws IOException {
+        PackPosterStorage storage = open();
+
+        try (PosterStorage.Staging staging = storage.stage()) {
+            staging.outputStream().write(new byte[MAX_OBJECT_BYTES]);
+            assertThatThrownBy(() -> staging.outputStream().write(1))
+                    .isInstanceOf(IOException.class)
+                    .hasMessageContaining("limit");
+        }
+
+        assertThat(storage.exists("a.png")).isFalse();
+        assertThat(files(".staging")).isZero();
+    }
+}